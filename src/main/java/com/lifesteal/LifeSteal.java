@@ -3,6 +3,7 @@ package com.lifesteal;
 import com.lifesteal.commands.AllyCommand;
 import com.lifesteal.commands.LifeStealCommand;
 import com.lifesteal.commands.ShrinkCommand;
+import com.lifesteal.gui.SkullCache;
 import com.lifesteal.listeners.*;
 import com.lifesteal.managers.*;
 import org.bukkit.plugin.java.JavaPlugin;
@@ -14,9 +15,13 @@ public class LifeSteal extends JavaPlugin {
     private ItemManager itemManager;
     private ModeManager modeManager;
     private AllyManager allyManager;
+    private SessionManager sessionManager;
     private BountyManager bountyManager;
     private WorldBorderManager worldBorderManager;
     private DatabaseManager databaseManager;
+    private ScheduleManager scheduleManager;
+    private NameCache nameCache;
+    private SkullCache skullCache;
 
     @Override
     public void onEnable() {
@@ -26,10 +31,14 @@ public class LifeSteal extends JavaPlugin {
         this.configManager = new ConfigManager(this);
         this.databaseManager = new DatabaseManager(this);
         this.databaseManager.initialize();
+        this.scheduleManager = new ScheduleManager(this);
+        this.nameCache = new NameCache(this);
+        this.skullCache = new SkullCache(this);
         this.heartManager = new HeartManager(this);
         this.itemManager = new ItemManager(this);
         this.modeManager = new ModeManager(this);
         this.allyManager = new AllyManager(this);
+        this.sessionManager = new SessionManager(this);
         this.bountyManager = new BountyManager(this);
         this.worldBorderManager = new WorldBorderManager(this);
 
@@ -56,6 +65,9 @@ public class LifeSteal extends JavaPlugin {
         // Initialize items
         itemManager.registerItems();
         
+        // Start the timer wheel before anything schedules on it
+        scheduleManager.start();
+        
         // Always load the world border manager to ensure data is updated
         worldBorderManager.loadBorderData();
         
@@ -73,13 +85,15 @@ public class LifeSteal extends JavaPlugin {
                 bountyManager.startBountySystem();
             }
         }
-        
-        // Schedule task to clean up timed out ally requests
-        getServer().getScheduler().runTaskTimer(this, () -> allyManager.cleanupTimedOutRequests(), 1200L, 1200L);
     }
 
     @Override
     public void onDisable() {
+        // Save pending deadlines before the managers below cancel their events
+        if (scheduleManager != null) {
+            scheduleManager.shutdown();
+        }
+
         if (modeManager != null) {
             modeManager.stopRotation();
         }
@@ -87,12 +101,25 @@ public class LifeSteal extends JavaPlugin {
         if (bountyManager != null) {
             bountyManager.stopBountySystem();
         }
+
+        if (allyManager != null) {
+            allyManager.shutdown();
+        }
      
         if (worldBorderManager != null) {
             worldBorderManager.stopShrinkTask();
             worldBorderManager.saveBorderData();
         }
 
+        if (sessionManager != null) {
+            sessionManager.shutdown();
+        }
+
+        if (heartManager != null) {
+            heartManager.shutdown();
+        }
+
+        // Closing waits for writes queued above on the database thread
         if (databaseManager != null) {
             databaseManager.close();
         }
@@ -122,6 +149,10 @@ public class LifeSteal extends JavaPlugin {
         return allyManager;
     }
     
+    public SessionManager getSessionManager() {
+        return sessionManager;
+    }
+
     public BountyManager getBountyManager() {
         return bountyManager;
     }
@@ -133,4 +164,16 @@ public class LifeSteal extends JavaPlugin {
     public DatabaseManager getDatabaseManager() {
         return databaseManager;
     }
+
+    public ScheduleManager getScheduleManager() {
+        return scheduleManager;
+    }
+
+    public NameCache getNameCache() {
+        return nameCache;
+    }
+
+    public SkullCache getSkullCache() {
+        return skullCache;
+    }
 }
\ No newline at end of file
@@ -2,6 +2,7 @@ package com.lifesteal.commands;
 
 import com.lifesteal.LifeSteal;
 import com.lifesteal.gui.AllyListGUI;
+import com.lifesteal.managers.AllyRelations;
 import com.lifesteal.utils.ColorUtils;
 import net.md_5.bungee.api.chat.ClickEvent;
 import net.md_5.bungee.api.chat.ComponentBuilder;
@@ -17,11 +18,13 @@ import org.bukkit.entity.Player;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 
 public class AllyCommand implements CommandExecutor, TabCompleter {
     private final LifeSteal plugin;
-    private final List<String> subCommands = Arrays.asList("list", "accept", "deny");
+    private final List<String> subCommands = Arrays.asList("list", "alliance", "accept", "deny");
 
     public AllyCommand(LifeSteal plugin) {
         this.plugin = plugin;
@@ -44,6 +47,9 @@ public class AllyCommand implements CommandExecutor, TabCompleter {
         if (args[0].equalsIgnoreCase("list")) {
             new AllyListGUI(plugin, player).open();
             return true;
+        } else if (args[0].equalsIgnoreCase("alliance")) {
+            sendAllianceInfo(player);
+            return true;
         } else if (args[0].equalsIgnoreCase("accept")) {
             if (args.length < 2) {
                 player.sendMessage(ColorUtils.colorize("&cUsage: /ally accept <player>"));
@@ -56,16 +62,22 @@ public class AllyCommand implements CommandExecutor, TabCompleter {
                 return true;
             }
             
-            if (plugin.getAllyManager().hasPendingIncomingRequest(player, requester)) {
-                if (plugin.getAllyManager().acceptAllyRequest(player, requester)) {
+            if (!plugin.getAllyManager().canJoinAlliance(player.getUniqueId(), requester.getUniqueId())) {
+                player.sendMessage(ColorUtils.colorize("&cAccepting would make your alliance larger than "
+                        + plugin.getConfigManager().getMaxAllianceSize() + " players!"));
+                return true;
+            }
+
+            plugin.getAllyManager().acceptAllyRequestAsync(player, requester).whenCompleteAsync((accepted, error) -> {
+                if (error != null) {
+                    player.sendMessage(ColorUtils.colorize("&cFailed to accept ally request!"));
+                } else if (accepted) {
                     player.sendMessage(ColorUtils.colorize("&aYou are now allies with " + requester.getName() + "!"));
                     requester.sendMessage(ColorUtils.colorize("&a" + player.getName() + " accepted your ally request!"));
                 } else {
-                    player.sendMessage(ColorUtils.colorize("&cFailed to accept ally request!"));
+                    player.sendMessage(ColorUtils.colorize("&cYou don't have a pending ally request from this player!"));
                 }
-            } else {
-                player.sendMessage(ColorUtils.colorize("&cYou don't have a pending ally request from this player!"));
-            }
+            }, mainThread());
             return true;
         } else if (args[0].equalsIgnoreCase("deny")) {
             if (args.length < 2) {
@@ -79,16 +91,19 @@ public class AllyCommand implements CommandExecutor, TabCompleter {
                 return true;
             }
             
-            if (plugin.getAllyManager().hasPendingIncomingRequest(player, requester)) {
-                if (plugin.getAllyManager().cancelAllyRequest(requester, player)) {
-                    player.sendMessage(ColorUtils.colorize("&aYou denied " + requester.getName() + "'s ally request."));
-                    requester.sendMessage(ColorUtils.colorize("&c" + player.getName() + " denied your ally request."));
-                } else {
+            plugin.getAllyManager().hasPendingIncomingRequestAsync(player, requester).whenCompleteAsync((hasRequest, error) -> {
+                if (error != null) {
                     player.sendMessage(ColorUtils.colorize("&cFailed to deny ally request!"));
+                    return;
                 }
-            } else {
-                player.sendMessage(ColorUtils.colorize("&cYou don't have a pending ally request from this player!"));
-            }
+                if (!hasRequest) {
+                    player.sendMessage(ColorUtils.colorize("&cYou don't have a pending ally request from this player!"));
+                    return;
+                }
+                plugin.getAllyManager().cancelAllyRequestAsync(requester, player);
+                player.sendMessage(ColorUtils.colorize("&aYou denied " + requester.getName() + "'s ally request."));
+                requester.sendMessage(ColorUtils.colorize("&c" + player.getName() + " denied your ally request."));
+            }, mainThread());
             return true;
         } else {
             // Assume it's a player name for sending a request
@@ -103,56 +118,109 @@ public class AllyCommand implements CommandExecutor, TabCompleter {
                 return true;
             }
             
-            if (plugin.getAllyManager().isAlly(player, target)) {
-                player.sendMessage(ColorUtils.colorize("&cYou are already allies with " + target.getName() + "!"));
-                return true;
-            }
-            
-            if (plugin.getAllyManager().hasPendingOutgoingRequest(player, target)) {
-                player.sendMessage(ColorUtils.colorize("&cYou already sent an ally request to " + target.getName() + "!"));
-                return true;
-            }
-            
-            if (plugin.getAllyManager().hasPendingIncomingRequest(player, target)) {
-                player.sendMessage(ColorUtils.colorize("&c" + target.getName() + " already sent you an ally request! Use /ally accept " + target.getName() + " to accept it."));
-                return true;
-            }
-            
-            if (plugin.getAllyManager().sendAllyRequest(player, target)) {
-                player.sendMessage(ColorUtils.colorize("&aYou have sent an ally request to " + target.getName() + "."));
-                
-                // Send clickable message to target
-                TextComponent message = new TextComponent(ColorUtils.colorize("&e" + player.getName() + " sent you an ally request. "));
-                
-                // Accept button
-                TextComponent acceptButton = new TextComponent(ColorUtils.colorize("&a[Accept]"));
-                acceptButton.setClickEvent(new ClickEvent(ClickEvent.Action.RUN_COMMAND, "/ally accept " + player.getName()));
-                acceptButton.setHoverEvent(new HoverEvent(HoverEvent.Action.SHOW_TEXT, 
-                    new ComponentBuilder(ColorUtils.colorize("&aClick to accept the ally request")).create()));
-                
-                // Deny button
-                TextComponent denyButton = new TextComponent(ColorUtils.colorize("&c[Deny]"));
-                denyButton.setClickEvent(new ClickEvent(ClickEvent.Action.RUN_COMMAND, "/ally deny " + player.getName()));
-                denyButton.setHoverEvent(new HoverEvent(HoverEvent.Action.SHOW_TEXT, 
-                    new ComponentBuilder(ColorUtils.colorize("&cClick to deny the ally request")).create()));
-                
-                // Combine the message
-                message.addExtra(acceptButton);
-                message.addExtra(new TextComponent(" "));
-                message.addExtra(denyButton);
+            plugin.getAllyManager().getRequestStateAsync(player, target).whenCompleteAsync((state, error) -> {
+                if (error != null) {
+                    player.sendMessage(ColorUtils.colorize("&cFailed to send ally request!"));
+                    return;
+                }
+                switch (state) {
+                    case ALLIED:
+                        player.sendMessage(ColorUtils.colorize("&cYou are already allies with " + target.getName() + "!"));
+                        return;
+                    case OUTGOING:
+                        player.sendMessage(ColorUtils.colorize("&cYou already sent an ally request to " + target.getName() + "!"));
+                        return;
+                    case INCOMING:
+                        player.sendMessage(ColorUtils.colorize("&c" + target.getName() + " already sent you an ally request! Use /ally accept " + target.getName() + " to accept it."));
+                        return;
+                    default:
+                        break;
+                }
+
+                if (!plugin.getAllyManager().canJoinAlliance(player.getUniqueId(), target.getUniqueId())) {
+                    player.sendMessage(ColorUtils.colorize("&cAllying with " + target.getName() + " would make your alliance larger than "
+                            + plugin.getConfigManager().getMaxAllianceSize() + " players!"));
+                    return;
+                }
                 
-                target.spigot().sendMessage(message);
-            } else {
-                player.sendMessage(ColorUtils.colorize("&cFailed to send ally request!"));
-            }
+                plugin.getAllyManager().sendAllyRequestAsync(player, target).thenAcceptAsync(sent -> {
+                    if (sent) {
+                        sendRequestMessages(player, target);
+                    } else {
+                        player.sendMessage(ColorUtils.colorize("&cFailed to send ally request!"));
+                    }
+                }, mainThread());
+            }, mainThread());
             return true;
         }
     }
 
+    private void sendRequestMessages(Player player, Player target) {
+        player.sendMessage(ColorUtils.colorize("&aYou have sent an ally request to " + target.getName() + "."));
+        
+        // Send clickable message to target
+        TextComponent message = new TextComponent(ColorUtils.colorize("&e" + player.getName() + " sent you an ally request. "));
+        
+        // Accept button
+        TextComponent acceptButton = new TextComponent(ColorUtils.colorize("&a[Accept]"));
+        acceptButton.setClickEvent(new ClickEvent(ClickEvent.Action.RUN_COMMAND, "/ally accept " + player.getName()));
+        acceptButton.setHoverEvent(new HoverEvent(HoverEvent.Action.SHOW_TEXT, 
+            new ComponentBuilder(ColorUtils.colorize("&aClick to accept the ally request")).create()));
+        
+        // Deny button
+        TextComponent denyButton = new TextComponent(ColorUtils.colorize("&c[Deny]"));
+        denyButton.setClickEvent(new ClickEvent(ClickEvent.Action.RUN_COMMAND, "/ally deny " + player.getName()));
+        denyButton.setHoverEvent(new HoverEvent(HoverEvent.Action.SHOW_TEXT, 
+            new ComponentBuilder(ColorUtils.colorize("&cClick to deny the ally request")).create()));
+        
+        // Combine the message
+        message.addExtra(acceptButton);
+        message.addExtra(new TextComponent(" "));
+        message.addExtra(denyButton);
+        
+        target.spigot().sendMessage(message);
+    }
+
+    private void sendAllianceInfo(Player player) {
+        if (!plugin.getAllyManager().isAlliancesEnabled()) {
+            player.sendMessage(ColorUtils.colorize("&cAlliances are disabled on this server. Use /ally list to see your allies."));
+            return;
+        }
+
+        int size = plugin.getAllyManager().getAllianceSize(player);
+        if (size <= 1) {
+            player.sendMessage(ColorUtils.colorize("&eYou are not part of an alliance yet."));
+            return;
+        }
+
+        int maxSize = plugin.getConfigManager().getMaxAllianceSize();
+        List<Player> online = plugin.getAllyManager().getOnlineAllianceMembers(player);
+        player.sendMessage(ColorUtils.colorize("&6=== Your Alliance &7(" + size + (maxSize > 0 ? "/" + maxSize : "")
+                + " members, " + online.size() + " online)&6 ==="));
+        for (UUID uuid : plugin.getAllyManager().getAllianceMembers(player)) {
+            Player member = Bukkit.getPlayer(uuid);
+            String name = plugin.getNameCache().getName(uuid, Bukkit.getOfflinePlayer(uuid).getName());
+            player.sendMessage(ColorUtils.colorize((member != null ? "&a● " : "&7○ ") + name));
+        }
+    }
+
+    private List<UUID> uuids(List<Player> players) {
+        List<UUID> ids = new ArrayList<>(players.size());
+        for (Player p : players) {
+            ids.add(p.getUniqueId());
+        }
+        return ids;
+    }
+
+    private Executor mainThread() {
+        return plugin.getDatabaseManager().getExecutor().mainThread();
+    }
+
     private void sendHelpMessage(Player player) {
         player.sendMessage(ColorUtils.colorize("&6=== Ally System Help ==="));
         player.sendMessage(ColorUtils.colorize("&e/ally <player> &7- Send an ally request to a player"));
         player.sendMessage(ColorUtils.colorize("&e/ally list &7- View your allies"));
+        player.sendMessage(ColorUtils.colorize("&e/ally alliance &7- View your alliance"));
         player.sendMessage(ColorUtils.colorize("&e/ally accept <player> &7- Accept an ally request"));
         player.sendMessage(ColorUtils.colorize("&e/ally deny <player> &7- Deny an ally request"));
     }
@@ -163,13 +231,21 @@ public class AllyCommand implements CommandExecutor, TabCompleter {
             return new ArrayList<>();
         }
 
+        Player player = (Player) sender;
         if (args.length == 1) {
             List<String> completions = new ArrayList<>(subCommands);
             
-            // Add online player names
-            for (Player player : Bukkit.getOnlinePlayers()) {
-                if (!player.getName().equals(sender.getName())) {
-                    completions.add(player.getName());
+            // Add online players who are not allies yet, resolved in one pass
+            List<Player> others = new ArrayList<>();
+            for (Player online : Bukkit.getOnlinePlayers()) {
+                if (!online.equals(player)) {
+                    others.add(online);
+                }
+            }
+            AllyRelations relations = plugin.getAllyManager().getRelations(player, uuids(others));
+            for (Player other : others) {
+                if (!relations.isAlly(other.getUniqueId())) {
+                    completions.add(other.getName());
                 }
             }
             
@@ -177,13 +253,13 @@ public class AllyCommand implements CommandExecutor, TabCompleter {
                     .filter(s -> s.toLowerCase().startsWith(args[0].toLowerCase()))
                     .collect(Collectors.toList());
         } else if (args.length == 2 && (args[0].equalsIgnoreCase("accept") || args[0].equalsIgnoreCase("deny"))) {
-            Player player = (Player) sender;
-            List<String> requesters = plugin.getAllyManager().getPendingIncomingRequests(player).stream()
+            List<Player> online = new ArrayList<>(Bukkit.getOnlinePlayers());
+            AllyRelations relations = plugin.getAllyManager().getRelations(player, uuids(online));
+            return online.stream()
+                    .filter(p -> relations.isRequester(p.getUniqueId()))
                     .map(Player::getName)
                     .filter(name -> name.toLowerCase().startsWith(args[1].toLowerCase()))
                     .collect(Collectors.toList());
-            
-            return requesters;
         }
         
         return new ArrayList<>();
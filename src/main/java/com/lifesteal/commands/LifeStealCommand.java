@@ -1,7 +1,12 @@
 package com.lifesteal.commands;
 
 import com.lifesteal.LifeSteal;
+import com.lifesteal.storage.ConnectionPool;
+import com.lifesteal.storage.JdbcPlayerStore;
+import com.lifesteal.storage.SqliteWriter;
+import com.lifesteal.storage.StatementCache;
 import com.lifesteal.utils.ColorUtils;
+import org.bukkit.BanList;
 import org.bukkit.Bukkit;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
@@ -14,13 +19,15 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 public class LifeStealCommand implements CommandExecutor, TabCompleter {
     private final LifeSteal plugin;
-    private final List<String> mainCommands = Arrays.asList("reload", "hearts", "revive", "schedule", "togglebar", "border");
+    private final List<String> mainCommands = Arrays.asList("reload", "hearts", "revive", "schedule", "togglebar", "border", "database");
     private final List<String> heartsOperations = Arrays.asList("set", "add", "remove");
     private final List<String> borderOperations = Arrays.asList("info", "reset", "shrink", "toggle");
+    private final List<String> databaseOperations = Arrays.asList("stats", "explain");
 
     public LifeStealCommand(LifeSteal plugin) {
         this.plugin = plugin;
@@ -36,6 +43,7 @@ public class LifeStealCommand implements CommandExecutor, TabCompleter {
             sender.sendMessage(ColorUtils.colorize("&7/schedule <set|add|subtract|info> &f- Control PvP/PvE cycle"));
             sender.sendMessage(ColorUtils.colorize("&7/togglebar &f- Toggle the boss bar visibility"));
             sender.sendMessage(ColorUtils.colorize("&7/border <info|reset|shrink|toggle> &f- Manage world border"));
+            sender.sendMessage(ColorUtils.colorize("&7/database <stats|explain> &f- Show database statistics or query plans"));
             sender.sendMessage(ColorUtils.colorize("&7/setworldspawn &f- Set the world spawn point (also updates border center if enabled)"));
             sender.sendMessage(ColorUtils.colorize("&7/time &f- Show time left until next border shrink"));
             return true;
@@ -164,6 +172,13 @@ public class LifeStealCommand implements CommandExecutor, TabCompleter {
                 
                 return handleBorderCommand(sender, args);
 
+            case "database":
+                if (!sender.hasPermission("lifesteal.admin")) {
+                    sender.sendMessage(ColorUtils.colorize("&cYou don't have permission to use this command!"));
+                    return true;
+                }
+                return handleDatabaseCommand(sender, args);
+
             case "bounty":
                 if (!sender.hasPermission("lifesteal.admin")) {
                     sender.sendMessage(ColorUtils.colorize("&cYou don't have permission to use this command!"));
@@ -224,21 +239,24 @@ public class LifeStealCommand implements CommandExecutor, TabCompleter {
             case "info":
                 // Show border information
                 boolean isEnabled = plugin.getConfigManager().isWorldBorderEnabled();
-                double currentSize = plugin.getWorldBorderManager().getCurrentSize();
                 boolean isShrinking = plugin.getConfigManager().isWorldBorderShrinkEnabled();
                 
                 sender.sendMessage(ColorUtils.colorize("&6&lWorld Border Information:"));
                 sender.sendMessage(ColorUtils.colorize("&eStatus: " + (isEnabled ? "&aEnabled" : "&cDisabled")));
-                sender.sendMessage(ColorUtils.colorize("&eCurrent Size: &b" + (int)currentSize + " blocks"));
                 sender.sendMessage(ColorUtils.colorize("&eShrinking: " + (isShrinking ? "&aEnabled" : "&cDisabled")));
                 
-                if (isShrinking) {
-                    sender.sendMessage(ColorUtils.colorize("&eNext Shrink: &b" + 
-                            plugin.getWorldBorderManager().getFormattedTimeUntilNextShrink()));
-                    sender.sendMessage(ColorUtils.colorize("&eShrink Amount: &b" + 
-                            (int)plugin.getConfigManager().getWorldBorderShrinkAmount() + " blocks"));
-                    sender.sendMessage(ColorUtils.colorize("&eMinimum Size: &b" + 
-                            (int)plugin.getConfigManager().getWorldBorderMinSize() + " blocks"));
+                for (String worldName : plugin.getWorldBorderManager().getManagedWorlds()) {
+                    sender.sendMessage(ColorUtils.colorize("&6" + worldName + ": &eCurrent Size: &b" +
+                            (int)plugin.getWorldBorderManager().getCurrentSize(worldName) + " blocks"));
+                    
+                    if (isShrinking) {
+                        sender.sendMessage(ColorUtils.colorize("  &eNext Shrink: &b" + 
+                                plugin.getWorldBorderManager().getFormattedTimeUntilNextShrink(worldName)));
+                        sender.sendMessage(ColorUtils.colorize("  &eShrink Amount: &b" + 
+                                (int)plugin.getConfigManager().getWorldBorderShrinkAmount(worldName) + " blocks"));
+                        sender.sendMessage(ColorUtils.colorize("  &eMinimum Size: &b" + 
+                                (int)plugin.getConfigManager().getWorldBorderMinSize(worldName) + " blocks"));
+                    }
                 }
                 return true;
                 
@@ -260,11 +278,8 @@ public class LifeStealCommand implements CommandExecutor, TabCompleter {
                     return true;
                 }
                 
-                // Cancel any existing warning task
-                plugin.getWorldBorderManager().cancelWarningTask();
-                
-                // Force immediate shrink
-                plugin.getWorldBorderManager().shrinkBorder(true);
+                // Force immediate shrink in every world
+                plugin.getWorldBorderManager().shrinkNow();
                 sender.sendMessage(ColorUtils.colorize("&aForced world border shrink initiated!"));
                 return true;
                 
@@ -279,8 +294,9 @@ public class LifeStealCommand implements CommandExecutor, TabCompleter {
                     plugin.getWorldBorderManager().initializeBorder();
                     sender.sendMessage(ColorUtils.colorize("&aWorld border has been enabled!"));
                 } else {
-                    // If we're disabling it, stop the shrink task
+                    // If we're disabling it, stop the shrink task and enforcement
                     plugin.getWorldBorderManager().stopShrinkTask();
+                    plugin.getWorldBorderManager().refreshSnapshots();
                     sender.sendMessage(ColorUtils.colorize("&cWorld border has been disabled!"));
                 }
                 return true;
@@ -295,6 +311,70 @@ public class LifeStealCommand implements CommandExecutor, TabCompleter {
         }
     }
 
+    private boolean handleDatabaseCommand(CommandSender sender, String[] args) {
+        String subCommand = args.length > 1 ? args[1].toLowerCase() : "stats";
+
+        switch (subCommand) {
+            case "stats":
+                JdbcPlayerStore store = plugin.getDatabaseManager().getJdbcStore();
+                if (store == null) {
+                    sender.sendMessage(ColorUtils.colorize("&eStorage: &b" + plugin.getDatabaseManager().getStorageType() + " &7(no database statistics)"));
+                    return true;
+                }
+                ConnectionPool pool = store.getPool();
+                if (pool == null) {
+                    sender.sendMessage(ColorUtils.colorize("&cThe database is not connected!"));
+                    return true;
+                }
+                sender.sendMessage(ColorUtils.colorize("&6&lDatabase Pool (" + plugin.getDatabaseManager().getStorageType() + "):"));
+                sender.sendMessage(ColorUtils.colorize("&eConnections: &b" + pool.getActiveCount() + " active&7, &b" +
+                        pool.getIdleCount() + " idle&7, &b" + pool.getOpenCount() + "/" + pool.getMaxSize() + " open"));
+                sender.sendMessage(ColorUtils.colorize("&eBorrows: &b" + pool.getBorrowCount() +
+                        " &7(avg wait &b" + String.format("%.2f", pool.getAverageWaitMillis()) + "ms&7)"));
+                sender.sendMessage(ColorUtils.colorize("&eConnections Opened: &b" + pool.getCreatedCount()));
+                sender.sendMessage(ColorUtils.colorize("&eFailed Validations: &b" + pool.getValidationFailures()));
+                sender.sendMessage(ColorUtils.colorize("&eBorrow Timeouts: &b" + pool.getTimeoutCount()));
+                StatementCache.Stats statements = pool.getStatementStats();
+                sender.sendMessage(ColorUtils.colorize("&eStatement Cache: &b" + statements.getHits() + " hits&7, &b" +
+                        statements.getMisses() + " misses &7(" + String.format("%.1f", statements.getHitRate() * 100) + "%)"));
+                sender.sendMessage(ColorUtils.colorize("&eSchema Version: &b" + store.getSchemaVersion() +
+                        " &7(" + store.getKeyFormat().getId() + " keys)"));
+                SqliteWriter writer = store.getWriter();
+                if (writer != null) {
+                    sender.sendMessage(ColorUtils.colorize("&6&lSQLite Writer:"));
+                    sender.sendMessage(ColorUtils.colorize("&eQueued Writes: &b" + writer.getQueueSize()));
+                    sender.sendMessage(ColorUtils.colorize("&eCommitted: &b" + writer.getWriteCount() + " write(s) in " +
+                            writer.getCommitCount() + " transaction(s) &7(avg batch &b" +
+                            String.format("%.1f", writer.getAverageBatchSize()) + "&7)"));
+                    sender.sendMessage(ColorUtils.colorize("&eFailed Writes: &b" + writer.getFailedCount()));
+                }
+                return true;
+
+            case "explain":
+                if (plugin.getDatabaseManager().getJdbcStore() == null) {
+                    sender.sendMessage(ColorUtils.colorize("&cQuery plans are only available for SQLite and MySQL storage!"));
+                    return true;
+                }
+                sender.sendMessage(ColorUtils.colorize("&eExplaining database queries..."));
+                plugin.getDatabaseManager().explainQueriesAsync().thenAcceptAsync(plans -> {
+                    sender.sendMessage(ColorUtils.colorize("&6&lQuery Plans (" + plugin.getDatabaseManager().getStorageType() + "):"));
+                    for (Map.Entry<String, List<String>> plan : plans.entrySet()) {
+                        sender.sendMessage(ColorUtils.colorize("&e" + plan.getKey() + ":"));
+                        for (String step : plan.getValue()) {
+                            sender.sendMessage(ColorUtils.colorize("  &7" + step));
+                        }
+                    }
+                }, plugin.getDatabaseManager().getExecutor().mainThread());
+                return true;
+
+            default:
+                sender.sendMessage(ColorUtils.colorize("&cUsage: /lifesteal database <stats|explain>"));
+                sender.sendMessage(ColorUtils.colorize("&7/stats &f- Show database connection pool statistics"));
+                sender.sendMessage(ColorUtils.colorize("&7/explain &f- Show how the database runs each plugin query"));
+                return true;
+        }
+    }
+
     private void handleHeartsCommand(CommandSender sender, String[] args) {
         Player target = Bukkit.getPlayer(args[2]);
         if (target == null) {
@@ -329,13 +409,27 @@ public class LifeStealCommand implements CommandExecutor, TabCompleter {
 
     private void handleReviveCommand(CommandSender sender, String playerName) {
         Player target = Bukkit.getPlayer(playerName);
-        if (target == null) {
-            sender.sendMessage(ColorUtils.colorize("&cPlayer not found!"));
+        if (target != null) {
+            plugin.getHeartManager().revivePlayer(target);
+            sender.sendMessage(ColorUtils.colorize("&aRevived " + target.getName() + "!"));
             return;
         }
 
-        plugin.getHeartManager().revivePlayer(target);
-        sender.sendMessage(ColorUtils.colorize("&aRevived " + target.getName() + "!"));
+        // Offline players are looked up in the name cache, never through Mojang
+        plugin.getNameCache().resolveAsync(playerName).thenAcceptAsync(uuid -> {
+            if (uuid == null) {
+                sender.sendMessage(ColorUtils.colorize("&cPlayer not found!"));
+                return;
+            }
+            String name = plugin.getNameCache().getName(uuid, playerName);
+            BanList bans = Bukkit.getBanList(BanList.Type.NAME);
+            if (!bans.isBanned(name)) {
+                sender.sendMessage(ColorUtils.colorize("&c" + name + " is not online or banned!"));
+                return;
+            }
+            plugin.getHeartManager().reviveOffline(uuid, name);
+            sender.sendMessage(ColorUtils.colorize("&aRevived " + name + "! They will rejoin with full hearts."));
+        }, plugin.getDatabaseManager().getExecutor().mainThread());
     }
     
     @Override
@@ -384,6 +478,13 @@ public class LifeStealCommand implements CommandExecutor, TabCompleter {
                         completions.add(op);
                     }
                 }
+            } else if (subCommand.equals("database")) {
+                // For database command, suggest operations
+                for (String op : databaseOperations) {
+                    if (op.startsWith(partialArg)) {
+                        completions.add(op);
+                    }
+                }
             }
         } else if (args.length == 3 && args[0].toLowerCase().equals("hearts")) {
             // Third argument for hearts command - player name
@@ -4,73 +4,72 @@ import com.lifesteal.LifeSteal;
 import com.lifesteal.utils.ColorUtils;
 import org.bukkit.Bukkit;
 import org.bukkit.Material;
-import org.bukkit.OfflinePlayer;
 import org.bukkit.entity.Player;
-import org.bukkit.inventory.Inventory;
+import org.bukkit.event.inventory.InventoryClickEvent;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.ItemMeta;
-import org.bukkit.inventory.meta.SkullMeta;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.UUID;
 
-public class AllyListGUI {
-    private final LifeSteal plugin;
-    private final Player player;
-    private final Inventory inventory;
+public class AllyListGUI extends PagedMenu<UUID> {
 
     public AllyListGUI(LifeSteal plugin, Player player) {
-        this.plugin = plugin;
-        this.player = player;
-        this.inventory = Bukkit.createInventory(null, 54, ColorUtils.colorize("&6Your Allies"));
-        initializeItems();
+        super(plugin, player, "&6Your Allies");
     }
 
-    private void initializeItems() {
-        List<OfflinePlayer> allies = plugin.getAllyManager().getAllies(player);
-        
-        if (allies.isEmpty()) {
-            ItemStack noAllies = new ItemStack(Material.BARRIER);
-            ItemMeta meta = noAllies.getItemMeta();
-            meta.setDisplayName(ColorUtils.colorize("&cYou have no allies"));
-            List<String> lore = new ArrayList<>();
-            lore.add(ColorUtils.colorize("&7Use /ally <player> to send an ally request"));
-            meta.setLore(lore);
-            noAllies.setItemMeta(meta);
-            inventory.setItem(22, noAllies);
-        } else {
-            for (int i = 0; i < allies.size() && i < 54; i++) {
-                OfflinePlayer ally = allies.get(i);
-                ItemStack skull = new ItemStack(Material.PLAYER_HEAD);
-                SkullMeta meta = (SkullMeta) skull.getItemMeta();
-                
-                meta.setDisplayName(ColorUtils.colorize("&e" + ally.getName()));
-                meta.setOwningPlayer(ally);
-                
-                List<String> lore = new ArrayList<>();
-                lore.add(ColorUtils.colorize("&7Status: " + (ally.isOnline() ? "&aOnline" : "&cOffline")));
-                lore.add(ColorUtils.colorize("&7Right-click to remove ally"));
-                meta.setLore(lore);
-                
-                skull.setItemMeta(meta);
-                inventory.setItem(i, skull);
-            }
-        }
+    /**
+     * Loads the ally list on the database thread and shows it once it is ready.
+     */
+    @Override
+    protected void load() {
+        plugin.getAllyManager().getAllyIdsAsync(player).thenAcceptAsync(this::setEntries,
+                plugin.getDatabaseManager().getExecutor().mainThread());
+    }
+
+    @Override
+    protected ItemStack createItem(UUID allyId) {
+        ItemStack skull = new ItemStack(Material.PLAYER_HEAD);
+        ItemMeta meta = skull.getItemMeta();
+
+        meta.setDisplayName(ColorUtils.colorize("&e" + getName(allyId)));
+
+        List<String> lore = new ArrayList<>();
+        lore.add(ColorUtils.colorize("&7Status: " + (Bukkit.getPlayer(allyId) != null ? "&aOnline" : "&cOffline")));
+        lore.add(ColorUtils.colorize("&7Right-click to remove ally"));
+        meta.setLore(lore);
 
-        // Fill empty slots with glass panes
-        ItemStack filler = new ItemStack(Material.BLACK_STAINED_GLASS_PANE);
-        ItemMeta fillerMeta = filler.getItemMeta();
-        fillerMeta.setDisplayName(" ");
-        filler.setItemMeta(fillerMeta);
+        skull.setItemMeta(meta);
+        return skull;
+    }
+
+    @Override
+    protected UUID getHeadOwner(UUID allyId) {
+        return allyId;
+    }
 
-        for (int i = 0; i < inventory.getSize(); i++) {
-            if (inventory.getItem(i) == null) {
-                inventory.setItem(i, filler);
-            }
+    @Override
+    protected void onEntryClick(UUID allyId, InventoryClickEvent event) {
+        // Right-click asks for confirmation before removing the ally
+        if (event.isRightClick()) {
+            new AllyRemoveConfirmGUI(plugin, player, allyId, getName(allyId)).open();
         }
     }
 
-    public void open() {
-        player.openInventory(inventory);
+    @Override
+    protected ItemStack createEmptyItem() {
+        ItemStack noAllies = new ItemStack(Material.BARRIER);
+        ItemMeta meta = noAllies.getItemMeta();
+        meta.setDisplayName(ColorUtils.colorize("&cYou have no allies"));
+        List<String> lore = new ArrayList<>();
+        lore.add(ColorUtils.colorize("&7Use /ally <player> to send an ally request"));
+        meta.setLore(lore);
+        noAllies.setItemMeta(meta);
+        return noAllies;
+    }
+
+    private String getName(UUID allyId) {
+        return plugin.getNameCache().getName(allyId, Bukkit.getOfflinePlayer(allyId).getName());
     }
-}
\ No newline at end of file
+}
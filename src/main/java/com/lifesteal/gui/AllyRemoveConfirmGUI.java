@@ -6,24 +6,25 @@ import org.bukkit.Bukkit;
 import org.bukkit.Material;
 import org.bukkit.OfflinePlayer;
 import org.bukkit.entity.Player;
-import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.ItemMeta;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.UUID;
 
-public class AllyRemoveConfirmGUI {
-    private final LifeSteal plugin;
-    private final Player player;
-    private final OfflinePlayer ally;
-    private final Inventory inventory;
+/**
+ * Holds the ally it asks about, so the click handler never has to recover the
+ * player from the title.
+ */
+public class AllyRemoveConfirmGUI extends Menu {
+    private final UUID allyId;
+    private final String allyName;
 
-    public AllyRemoveConfirmGUI(LifeSteal plugin, Player player, OfflinePlayer ally) {
-        this.plugin = plugin;
-        this.player = player;
-        this.ally = ally;
-        this.inventory = Bukkit.createInventory(null, 27, ColorUtils.colorize("&cRemove Ally: " + ally.getName()));
+    public AllyRemoveConfirmGUI(LifeSteal plugin, Player player, UUID allyId, String allyName) {
+        super(plugin, player, 27, "&cRemove Ally: " + allyName);
+        this.allyId = allyId;
+        this.allyName = allyName;
         initializeItems();
     }
 
@@ -33,10 +34,10 @@ public class AllyRemoveConfirmGUI {
         ItemMeta confirmMeta = confirm.getItemMeta();
         confirmMeta.setDisplayName(ColorUtils.colorize("&a&lCONFIRM"));
         List<String> confirmLore = new ArrayList<>();
-        confirmLore.add(ColorUtils.colorize("&7Click to remove " + ally.getName() + " from your allies"));
+        confirmLore.add(ColorUtils.colorize("&7Click to remove " + allyName + " from your allies"));
         confirmMeta.setLore(confirmLore);
         confirm.setItemMeta(confirmMeta);
-        inventory.setItem(11, confirm);
+        setItem(11, confirm, (clicker, event) -> confirm());
 
         // Cancel button
         ItemStack cancel = new ItemStack(Material.RED_WOOL);
@@ -46,22 +47,41 @@ public class AllyRemoveConfirmGUI {
         cancelLore.add(ColorUtils.colorize("&7Click to cancel"));
         cancelMeta.setLore(cancelLore);
         cancel.setItemMeta(cancelMeta);
-        inventory.setItem(15, cancel);
+        setItem(15, cancel, (clicker, event) -> {
+            player.closeInventory();
+            new AllyListGUI(plugin, player).open();
+        });
 
         // Fill empty slots with glass panes
-        ItemStack filler = new ItemStack(Material.BLACK_STAINED_GLASS_PANE);
-        ItemMeta fillerMeta = filler.getItemMeta();
-        fillerMeta.setDisplayName(" ");
-        filler.setItemMeta(fillerMeta);
+        fillEmpty();
+    }
+
+    private void confirm() {
+        player.closeInventory();
+        // Looking up by UUID never blocks, unlike by name
+        OfflinePlayer ally = Bukkit.getOfflinePlayer(allyId);
+        plugin.getAllyManager().removeAllyAsync(player, ally).whenCompleteAsync((ignored, error) -> {
+            if (error != null) {
+                player.sendMessage(ColorUtils.colorize("&cFailed to remove ally!"));
+                return;
+            }
+            player.sendMessage(ColorUtils.colorize("&aRemoved " + allyName + " from your allies."));
 
-        for (int i = 0; i < inventory.getSize(); i++) {
-            if (inventory.getItem(i) == null) {
-                inventory.setItem(i, filler);
+            // If ally is online, notify them
+            if (ally.isOnline()) {
+                ally.getPlayer().sendMessage(ColorUtils.colorize("&c" + player.getName() + " has removed you from their allies."));
             }
-        }
+
+            // Open ally list
+            new AllyListGUI(plugin, player).open();
+        }, plugin.getDatabaseManager().getExecutor().mainThread());
+    }
+
+    public UUID getAllyId() {
+        return allyId;
     }
 
-    public void open() {
-        player.openInventory(inventory);
+    public String getAllyName() {
+        return allyName;
     }
-}
\ No newline at end of file
+}
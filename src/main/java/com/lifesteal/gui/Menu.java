@@ -0,0 +1,106 @@
+package com.lifesteal.gui;
+
+import com.lifesteal.LifeSteal;
+import com.lifesteal.utils.ColorUtils;
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.entity.Player;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryCloseEvent;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.InventoryHolder;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+
+import java.util.Arrays;
+
+/**
+ * Base of every plugin menu. The menu is the holder of its own inventory, so
+ * {@link com.lifesteal.listeners.GUIListener} recognises it by type and hands
+ * each click straight to the handler registered for that slot.
+ */
+public abstract class Menu implements InventoryHolder {
+    /**
+     * Reacts to a click on one slot. The event is already cancelled.
+     */
+    @FunctionalInterface
+    public interface ClickHandler {
+        void onClick(Player player, InventoryClickEvent event);
+    }
+
+    protected final LifeSteal plugin;
+    protected final Player player;
+    protected final Inventory inventory;
+    private final ClickHandler[] handlers;
+
+    protected Menu(LifeSteal plugin, Player player, int size, String title) {
+        this.plugin = plugin;
+        this.player = player;
+        this.inventory = Bukkit.createInventory(this, size, ColorUtils.colorize(title));
+        this.handlers = new ClickHandler[size];
+    }
+
+    /**
+     * Puts an item in the slot that does nothing when clicked.
+     */
+    protected void setItem(int slot, ItemStack item) {
+        setItem(slot, item, null);
+    }
+
+    protected void setItem(int slot, ItemStack item, ClickHandler handler) {
+        inventory.setItem(slot, item);
+        handlers[slot] = handler;
+    }
+
+    /**
+     * Empties every slot and forgets its handler.
+     */
+    protected void clear() {
+        inventory.clear();
+        Arrays.fill(handlers, null);
+    }
+
+    /**
+     * Fills every empty slot with a black glass pane.
+     */
+    protected void fillEmpty() {
+        ItemStack filler = new ItemStack(Material.BLACK_STAINED_GLASS_PANE);
+        ItemMeta fillerMeta = filler.getItemMeta();
+        fillerMeta.setDisplayName(" ");
+        filler.setItemMeta(fillerMeta);
+
+        for (int i = 0; i < inventory.getSize(); i++) {
+            if (inventory.getItem(i) == null) {
+                setItem(i, filler);
+            }
+        }
+    }
+
+    /**
+     * Called for every click while the menu is open, including clicks in the
+     * player's own inventory below it. Nothing can be moved in or out.
+     */
+    public void handleClick(InventoryClickEvent event) {
+        event.setCancelled(true);
+        int slot = event.getRawSlot();
+        if (slot < 0 || slot >= handlers.length || handlers[slot] == null) {
+            return;
+        }
+        handlers[slot].onClick(player, event);
+    }
+
+    /**
+     * Called when the menu is closed, whether by the player or by another menu opening.
+     */
+    public void handleClose(InventoryCloseEvent event) {
+    }
+
+    public void open() {
+        player.openInventory(inventory);
+    }
+
+    @Override
+    public Inventory getInventory() {
+        return inventory;
+    }
+}
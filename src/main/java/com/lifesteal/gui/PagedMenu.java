@@ -0,0 +1,153 @@
+package com.lifesteal.gui;
+
+import com.lifesteal.LifeSteal;
+import com.lifesteal.utils.ColorUtils;
+import org.bukkit.Material;
+import org.bukkit.entity.Player;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryCloseEvent;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A menu listing any number of entries, five rows per page with navigation in
+ * the bottom row. It opens at once showing a loading item, asks the subclass to
+ * {@link #load()} its entries, and swaps in player heads from the
+ * {@link SkullCache} as they become available.
+ */
+public abstract class PagedMenu<T> extends Menu {
+    protected static final int PAGE_SIZE = 45;
+    private static final int PREVIOUS_SLOT = 45;
+    private static final int INFO_SLOT = 49;
+    private static final int NEXT_SLOT = 53;
+    private static final int CENTER_SLOT = 22;
+
+    private List<T> entries; // null until loaded
+    private int page;
+    private int render; // Bumped on every redraw so late heads do not land on another page
+    private boolean closed;
+
+    protected PagedMenu(LifeSteal plugin, Player player, String title) {
+        super(plugin, player, 54, title);
+    }
+
+    /**
+     * Starts fetching the entries. Implementations call {@link #setEntries(List)}
+     * on the server thread when they are ready.
+     */
+    protected abstract void load();
+
+    /**
+     * The item shown for an entry. Should be cheap; heads are filled in later.
+     */
+    protected abstract ItemStack createItem(T entry);
+
+    protected abstract void onEntryClick(T entry, InventoryClickEvent event);
+
+    /**
+     * Whose head should replace the entry's item, or null to keep it.
+     */
+    protected UUID getHeadOwner(T entry) {
+        return null;
+    }
+
+    /**
+     * Shown in the middle when there are no entries.
+     */
+    protected abstract ItemStack createEmptyItem();
+
+    @Override
+    public void open() {
+        showPage(0);
+        super.open();
+        load();
+    }
+
+    protected void setEntries(List<T> entries) {
+        if (closed || !player.isOnline()) {
+            return;
+        }
+        this.entries = new ArrayList<>(entries);
+        showPage(Math.min(page, getPageCount() - 1));
+    }
+
+    private int getPageCount() {
+        if (entries == null || entries.isEmpty()) {
+            return 1;
+        }
+        return (entries.size() + PAGE_SIZE - 1) / PAGE_SIZE;
+    }
+
+    private void showPage(int newPage) {
+        page = newPage;
+        int current = ++render;
+        clear();
+
+        if (entries == null) {
+            setItem(CENTER_SLOT, named(Material.CLOCK, "&7Loading..."));
+        } else if (entries.isEmpty()) {
+            setItem(CENTER_SLOT, createEmptyItem());
+        } else {
+            int from = page * PAGE_SIZE;
+            int to = Math.min(from + PAGE_SIZE, entries.size());
+            for (int i = from; i < to; i++) {
+                T entry = entries.get(i);
+                int slot = i - from;
+                ItemStack item = createItem(entry);
+                setItem(slot, item, (clicker, event) -> onEntryClick(entry, event));
+
+                UUID owner = getHeadOwner(entry);
+                if (owner != null) {
+                    plugin.getSkullCache().request(owner, head -> {
+                        if (render == current && !closed) {
+                            inventory.setItem(slot, withDisplay(head, item));
+                        }
+                    });
+                }
+            }
+        }
+
+        int pages = getPageCount();
+        if (page > 0) {
+            setItem(PREVIOUS_SLOT, named(Material.ARROW, "&ePrevious Page"), (clicker, event) -> showPage(page - 1));
+        }
+        if (pages > 1) {
+            setItem(INFO_SLOT, named(Material.PAPER, "&7Page " + (page + 1) + "/" + pages));
+        }
+        if (page < pages - 1) {
+            setItem(NEXT_SLOT, named(Material.ARROW, "&eNext Page"), (clicker, event) -> showPage(page + 1));
+        }
+
+        // Fill empty slots with glass panes
+        fillEmpty();
+    }
+
+    /**
+     * The head carrying the name and lore of the placeholder item.
+     */
+    private ItemStack withDisplay(ItemStack head, ItemStack placeholder) {
+        ItemMeta from = placeholder.getItemMeta();
+        ItemMeta meta = head.getItemMeta();
+        meta.setDisplayName(from.getDisplayName());
+        meta.setLore(from.getLore());
+        head.setItemMeta(meta);
+        return head;
+    }
+
+    protected ItemStack named(Material material, String name) {
+        ItemStack item = new ItemStack(material);
+        ItemMeta meta = item.getItemMeta();
+        meta.setDisplayName(ColorUtils.colorize(name));
+        item.setItemMeta(meta);
+        return item;
+    }
+
+    @Override
+    public void handleClose(InventoryCloseEvent event) {
+        closed = true;
+    }
+}
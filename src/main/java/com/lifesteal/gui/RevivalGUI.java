@@ -1,126 +1,191 @@
 package com.lifesteal.gui;
 
 import com.lifesteal.LifeSteal;
+import com.lifesteal.managers.AllyRelations;
 import com.lifesteal.utils.ColorUtils;
+import org.bukkit.BanList;
 import org.bukkit.Bukkit;
 import org.bukkit.Material;
 import org.bukkit.OfflinePlayer;
 import org.bukkit.entity.Player;
-import org.bukkit.inventory.Inventory;
+import org.bukkit.event.inventory.InventoryClickEvent;
 import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.PlayerInventory;
 import org.bukkit.inventory.meta.ItemMeta;
-import org.bukkit.inventory.meta.SkullMeta;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.UUID;
 
-public class RevivalGUI {
-    private final LifeSteal plugin;
-    private final Player player;
-    private final Inventory inventory;
+/**
+ * Opened by a revival item. The item is only consumed once someone is actually
+ * revived, so closing the menu costs nothing.
+ */
+public class RevivalGUI extends PagedMenu<RevivalGUI.Candidate> {
+    private final String itemType;
 
-    public RevivalGUI(LifeSteal plugin, Player player) {
-        this.plugin = plugin;
-        this.player = player;
-        this.inventory = Bukkit.createInventory(null, 54, ColorUtils.colorize("&6Select Ally to Revive"));
-        initializeItems();
+    /**
+     * @param itemType custom item id of the revival item that opened the menu
+     */
+    public RevivalGUI(LifeSteal plugin, Player player, String itemType) {
+        super(plugin, player, "&6Select Ally to Revive");
+        this.itemType = itemType;
     }
 
-    private void initializeItems() {
-        List<Player> eliminatedAllies = new ArrayList<>();
-        List<org.bukkit.OfflinePlayer> bannedAllies = new ArrayList<>();
-        
-        // Get all online players in spectator mode who are allies
+    /**
+     * An ally who can be revived, either online in spectator mode or banned.
+     */
+    static final class Candidate {
+        final UUID uuid;
+        final String name;
+        final boolean banned;
+
+        Candidate(UUID uuid, String name, boolean banned) {
+            this.uuid = uuid;
+            this.name = name;
+            this.banned = banned;
+        }
+    }
+
+    /**
+     * Loads the ally list on the database thread, then picks the eliminated allies.
+     */
+    @Override
+    protected void load() {
+        plugin.getAllyManager().getAllyIdsAsync(player).thenAcceptAsync(allyIds -> setEntries(findCandidates(allyIds)),
+                plugin.getDatabaseManager().getExecutor().mainThread());
+    }
+
+    private List<Candidate> findCandidates(List<UUID> allyIds) {
+        List<Candidate> candidates = new ArrayList<>();
+
+        // Get all online players in spectator mode who are allies, resolved in one pass
+        List<UUID> spectators = new ArrayList<>();
         for (Player p : Bukkit.getOnlinePlayers()) {
-            if (p.getGameMode() == org.bukkit.GameMode.SPECTATOR && plugin.getAllyManager().isAlly(player, p)) {
-                eliminatedAllies.add(p);
+            if (p.getGameMode() == org.bukkit.GameMode.SPECTATOR) {
+                spectators.add(p.getUniqueId());
             }
         }
-        
+        AllyRelations relations = plugin.getAllyManager().getRelations(player, spectators);
+        Set<UUID> included = new HashSet<>(relations.allies);
+        for (UUID spectator : relations.allies) {
+            candidates.add(new Candidate(spectator, Bukkit.getPlayer(spectator).getName(), false));
+        }
+
         // Get all banned players who are allies
-        for (org.bukkit.OfflinePlayer offlinePlayer : plugin.getAllyManager().getAllies(player)) {
+        BanList bans = Bukkit.getBanList(BanList.Type.NAME);
+        for (UUID allyId : allyIds) {
+            // Online eliminated allies are already listed
+            if (included.contains(allyId)) {
+                continue;
+            }
+            String name = plugin.getNameCache().getName(allyId, Bukkit.getOfflinePlayer(allyId).getName());
             // Check if the player is banned
-            if (offlinePlayer.getName() != null && Bukkit.getBanList(org.bukkit.BanList.Type.NAME).isBanned(offlinePlayer.getName())) {
-                // Make sure they're not already in the eliminated list (if they're online)
-                boolean alreadyIncluded = false;
-                for (Player p : eliminatedAllies) {
-                    if (p.getUniqueId().equals(offlinePlayer.getUniqueId())) {
-                        alreadyIncluded = true;
-                        break;
-                    }
-                }
-                
-                if (!alreadyIncluded) {
-                    bannedAllies.add(offlinePlayer);
-                }
+            if (name != null && bans.isBanned(name)) {
+                candidates.add(new Candidate(allyId, name, true));
             }
         }
+        return candidates;
+    }
 
-        if (eliminatedAllies.isEmpty() && bannedAllies.isEmpty()) {
-            // No allies to revive
-            ItemStack noAllies = new ItemStack(Material.BARRIER);
-            ItemMeta meta = noAllies.getItemMeta();
-            meta.setDisplayName(ColorUtils.colorize("&cNo allies to revive"));
-            List<String> lore = new ArrayList<>();
-            lore.add(ColorUtils.colorize("&7None of your allies need revival"));
-            lore.add(ColorUtils.colorize("&7Use /ally to add more allies"));
-            meta.setLore(lore);
-            noAllies.setItemMeta(meta);
-            inventory.setItem(22, noAllies);
-        } else {
-            int slot = 0;
-            
-            // Add online eliminated ally heads to the inventory
-            for (int i = 0; i < eliminatedAllies.size() && slot < 54; i++) {
-                Player eliminated = eliminatedAllies.get(i);
-                ItemStack skull = new ItemStack(Material.PLAYER_HEAD);
-                SkullMeta meta = (SkullMeta) skull.getItemMeta();
-                
-                meta.setDisplayName(ColorUtils.colorize("&e" + eliminated.getName()));
-                meta.setOwningPlayer(eliminated);
-                
-                List<String> lore = new ArrayList<>();
-                lore.add(ColorUtils.colorize("&7Click to revive this ally"));
-                lore.add(ColorUtils.colorize("&7Status: &eEliminated (Spectator)"));
-                meta.setLore(lore);
-                
-                skull.setItemMeta(meta);
-                inventory.setItem(slot++, skull);
+    @Override
+    protected ItemStack createItem(Candidate candidate) {
+        ItemStack skull = new ItemStack(Material.PLAYER_HEAD);
+        ItemMeta meta = skull.getItemMeta();
+
+        meta.setDisplayName(ColorUtils.colorize((candidate.banned ? "&c" : "&e") + candidate.name));
+
+        List<String> lore = new ArrayList<>();
+        lore.add(ColorUtils.colorize("&7Click to revive this ally"));
+        lore.add(ColorUtils.colorize(candidate.banned ? "&7Status: &cBanned" : "&7Status: &eEliminated (Spectator)"));
+        meta.setLore(lore);
+
+        skull.setItemMeta(meta);
+        return skull;
+    }
+
+    @Override
+    protected UUID getHeadOwner(Candidate candidate) {
+        return candidate.uuid;
+    }
+
+    @Override
+    protected void onEntryClick(Candidate candidate, InventoryClickEvent event) {
+        revive(Bukkit.getOfflinePlayer(candidate.uuid));
+    }
+
+    @Override
+    protected ItemStack createEmptyItem() {
+        ItemStack noAllies = new ItemStack(Material.BARRIER);
+        ItemMeta meta = noAllies.getItemMeta();
+        meta.setDisplayName(ColorUtils.colorize("&cNo allies to revive"));
+        List<String> lore = new ArrayList<>();
+        lore.add(ColorUtils.colorize("&7None of your allies need revival"));
+        lore.add(ColorUtils.colorize("&7Use /ally to add more allies"));
+        meta.setLore(lore);
+        noAllies.setItemMeta(meta);
+        return noAllies;
+    }
+
+    /**
+     * Checks that the target is still an ally, then revives them back on the server thread.
+     */
+    private void revive(OfflinePlayer target) {
+        plugin.getAllyManager().isAllyAsync(player, target).thenAcceptAsync(isAlly -> {
+            if (!isAlly) {
+                player.sendMessage(ColorUtils.colorize("&cYou can only revive your allies!"));
+                return;
             }
+            reviveAlly(target);
+        }, plugin.getDatabaseManager().getExecutor().mainThread());
+    }
+
+    private void reviveAlly(OfflinePlayer targetOffline) {
+        // Handle online players
+        if (targetOffline.isOnline()) {
+            Player target = targetOffline.getPlayer();
+            plugin.getHeartManager().revivePlayer(target);
+            player.sendMessage(ColorUtils.colorize("&aSuccessfully revived " + target.getName() + "!"));
+            target.sendMessage(ColorUtils.colorize("&aYou have been revived by " + player.getName() + "!"));
+        } 
+        // Handle banned players
+        else if (Bukkit.getBanList(org.bukkit.BanList.Type.NAME).isBanned(targetOffline.getName())) {
+            // Unban the player and reset their stored hearts for their next login
+            plugin.getHeartManager().reviveOffline(targetOffline.getUniqueId(), targetOffline.getName());
             
-            // Add banned ally heads to the inventory
-            for (int i = 0; i < bannedAllies.size() && slot < 54; i++) {
-                org.bukkit.OfflinePlayer banned = bannedAllies.get(i);
-                ItemStack skull = new ItemStack(Material.PLAYER_HEAD);
-                SkullMeta meta = (SkullMeta) skull.getItemMeta();
-                
-                meta.setDisplayName(ColorUtils.colorize("&c" + banned.getName()));
-                meta.setOwningPlayer(banned);
-                
-                List<String> lore = new ArrayList<>();
-                lore.add(ColorUtils.colorize("&7Click to revive this ally"));
-                lore.add(ColorUtils.colorize("&7Status: &cBanned"));
-                meta.setLore(lore);
-                
-                skull.setItemMeta(meta);
-                inventory.setItem(slot++, skull);
-            }
+            player.sendMessage(ColorUtils.colorize("&aSuccessfully unbanned " + targetOffline.getName() + "!"));
+            player.sendMessage(ColorUtils.colorize("&eThey will be revived when they next log in."));
         }
+        // Handle offline but not banned players
+        else {
+            player.sendMessage(ColorUtils.colorize("&cPlayer is not online or banned!"));
+            player.closeInventory();
+            return;
+        }
+        
+        consumeItem();
+        player.closeInventory();
+    }
 
-        // Fill empty slots with glass panes
-        ItemStack filler = new ItemStack(Material.BLACK_STAINED_GLASS_PANE);
-        ItemMeta fillerMeta = filler.getItemMeta();
-        fillerMeta.setDisplayName(" ");
-        filler.setItemMeta(fillerMeta);
+    /**
+     * Takes one of the revival items that opened the menu from the player's inventory.
+     */
+    private void consumeItem() {
+        PlayerInventory inv = player.getInventory();
+        ItemStack reviveItem = plugin.getItemManager().getCustomItem(itemType);
+        if (reviveItem == null) {
+            return;
+        }
 
-        for (int i = 0; i < inventory.getSize(); i++) {
-            if (inventory.getItem(i) == null) {
-                inventory.setItem(i, filler);
+        for (int i = 0; i < inv.getSize(); i++) {
+            ItemStack item = inv.getItem(i);
+            if (item != null && item.isSimilar(reviveItem)) {
+                item.setAmount(item.getAmount() - 1);
+                inv.setItem(i, item.getAmount() <= 0 ? null : item);
+                return;
             }
         }
     }
-
-    public void open() {
-        player.openInventory(inventory);
-    }
-}
\ No newline at end of file
+}
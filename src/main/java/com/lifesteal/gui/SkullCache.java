@@ -0,0 +1,94 @@
+package com.lifesteal.gui;
+
+import com.lifesteal.LifeSteal;
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.SkullMeta;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Player heads by owner. Setting the owner of a head can make the server resolve
+ * the profile, so each head is built once, a few per tick, and then copied.
+ * Server thread only.
+ */
+public class SkullCache {
+    private static final int MAX_ENTRIES = 512;
+    private static final int HEADS_PER_TICK = 4;
+
+    private final LifeSteal plugin;
+    private final Map<UUID, ItemStack> heads = new LinkedHashMap<UUID, ItemStack>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<UUID, ItemStack> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+    // Owners still to build, in request order, with everyone waiting for them
+    private final Map<UUID, List<Consumer<ItemStack>>> pending = new LinkedHashMap<>();
+    private BukkitTask buildTask;
+
+    public SkullCache(LifeSteal plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * A copy of the owner's head, or null if it was not built yet.
+     */
+    public ItemStack getIfPresent(UUID owner) {
+        ItemStack head = heads.get(owner);
+        return head != null ? head.clone() : null;
+    }
+
+    /**
+     * Passes a copy of the owner's head to the callback: right away if it is
+     * cached, otherwise on a later tick once it is built.
+     */
+    public void request(UUID owner, Consumer<ItemStack> callback) {
+        ItemStack head = getIfPresent(owner);
+        if (head != null) {
+            callback.accept(head);
+            return;
+        }
+        pending.computeIfAbsent(owner, k -> new ArrayList<>()).add(callback);
+        if (buildTask == null) {
+            buildTask = Bukkit.getScheduler().runTaskTimer(plugin, this::buildPending, 1L, 1L);
+        }
+    }
+
+    private void buildPending() {
+        Iterator<Map.Entry<UUID, List<Consumer<ItemStack>>>> it = pending.entrySet().iterator();
+        for (int built = 0; built < HEADS_PER_TICK && it.hasNext(); built++) {
+            Map.Entry<UUID, List<Consumer<ItemStack>>> entry = it.next();
+            it.remove();
+            ItemStack head = build(entry.getKey());
+            heads.put(entry.getKey(), head);
+            for (Consumer<ItemStack> callback : entry.getValue()) {
+                callback.accept(head.clone());
+            }
+        }
+        if (pending.isEmpty()) {
+            buildTask.cancel();
+            buildTask = null;
+        }
+    }
+
+    private ItemStack build(UUID owner) {
+        ItemStack head = new ItemStack(Material.PLAYER_HEAD);
+        SkullMeta meta = (SkullMeta) head.getItemMeta();
+        meta.setOwningPlayer(Bukkit.getOfflinePlayer(owner));
+        head.setItemMeta(meta);
+        return head;
+    }
+
+    public int size() {
+        return heads.size();
+    }
+}
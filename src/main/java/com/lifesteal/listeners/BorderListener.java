@@ -1,7 +1,11 @@
 package com.lifesteal.listeners;
 
 import com.lifesteal.LifeSteal;
+import com.lifesteal.managers.BorderSnapshot;
+import com.lifesteal.managers.BorderZoneTracker;
+import com.lifesteal.managers.PlayerSession;
 import com.lifesteal.utils.ColorUtils;
+import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
@@ -9,19 +13,18 @@ import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.entity.PlayerDeathEvent;
 import org.bukkit.event.player.PlayerDropItemEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
 import org.bukkit.event.player.PlayerMoveEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
 import org.bukkit.event.player.PlayerRespawnEvent;
 import org.bukkit.event.player.PlayerTeleportEvent;
 import org.bukkit.scheduler.BukkitRunnable;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.ArrayList;
 import java.util.UUID;
 
 public class BorderListener implements Listener {
     private final LifeSteal plugin;
-    private final Map<UUID, Long> lastWarningTime = new HashMap<>();
-    private final Map<UUID, Long> lastDamageTime = new HashMap<>();
     private static final long WARNING_COOLDOWN = 5000; // 5 seconds cooldown between warnings
     private static final long DAMAGE_COOLDOWN = 1000; // 1 second cooldown between damage
     private static final double INSTANT_KILL_DISTANCE = 100.0; // Distance beyond border for instant kill
@@ -29,37 +32,45 @@ public class BorderListener implements Listener {
     public BorderListener(LifeSteal plugin) {
         this.plugin = plugin;
         
-        // Start a task to check for players outside the border and apply damage
+        // Start a task that damages players outside the border. Only players the
+        // zone tracker put near or outside the border are looked at.
         new BukkitRunnable() {
             @Override
             public void run() {
-                if (!plugin.getConfigManager().isWorldBorderEnabled()) {
+                BorderZoneTracker zones = plugin.getWorldBorderManager().getZoneTracker();
+                if (zones.getWatched().isEmpty()) {
                     return;
                 }
                 
                 long currentTime = System.currentTimeMillis();
                 
-                for (Player player : plugin.getServer().getOnlinePlayers()) {
-                    if (plugin.getWorldBorderManager().isOutsideBorder(player.getLocation())) {
-                        UUID playerId = player.getUniqueId();
+                for (UUID uuid : new ArrayList<>(zones.getWatched().keySet())) {
+                    Player player = Bukkit.getPlayer(uuid);
+                    if (player == null) {
+                        continue;
+                    }
+                    Location location = player.getLocation();
+                    if (zones.update(player, location) != BorderZoneTracker.Zone.OUTSIDE) {
+                        continue;
+                    }
+                    BorderSnapshot border = plugin.getWorldBorderManager().getSnapshot(location.getWorld());
+                    PlayerSession session = plugin.getSessionManager().get(player);
+                    
+                    // Check if we should apply damage (with cooldown)
+                    if (currentTime - session.getLastBorderDamage() > DAMAGE_COOLDOWN) {
+                        
+                        // Calculate distance from border
+                        double distanceFromBorder = border.distanceOutside(location.getX(), location.getZ());
                         
-                        // Check if we should apply damage (with cooldown)
-                        if (!lastDamageTime.containsKey(playerId) || 
-                            currentTime - lastDamageTime.get(playerId) > DAMAGE_COOLDOWN) {
-                            
-                            // Calculate distance from border
-                            double distanceFromBorder = plugin.getWorldBorderManager().getDistanceOutsideBorder(player.getLocation());
-                            
-                            // If player is way outside the border, kill them instantly
-                            if (distanceFromBorder > INSTANT_KILL_DISTANCE) {
-                                player.setHealth(0);
-                                player.sendMessage(ColorUtils.colorize("&c&lYou ventured too far outside the world border and died!"));
-                            } else {
-                                // Apply damage based on config
-                                double damage = plugin.getConfigManager().getWorldBorderDamageAmount();
-                                player.damage(damage);
-                                lastDamageTime.put(playerId, currentTime);
-                            }
+                        // If player is way outside the border, kill them instantly
+                        if (distanceFromBorder > INSTANT_KILL_DISTANCE) {
+                            player.setHealth(0);
+                            player.sendMessage(ColorUtils.colorize("&c&lYou ventured too far outside the world border and died!"));
+                        } else {
+                            // Apply damage based on config
+                            double damage = plugin.getConfigManager().getWorldBorderDamageAmount();
+                            player.damage(damage);
+                            session.setLastBorderDamage(currentTime);
                         }
                     }
                 }
@@ -69,34 +80,43 @@ public class BorderListener implements Listener {
 
     @EventHandler
     public void onPlayerMove(PlayerMoveEvent event) {
-        if (!plugin.getConfigManager().isWorldBorderEnabled()) {
-            return;
-        }
+        Location to = event.getTo();
 
         // Only check if the player has moved to a new block
-        if (event.getFrom().getBlockX() == event.getTo().getBlockX() &&
-            event.getFrom().getBlockZ() == event.getTo().getBlockZ()) {
+        if (event.getFrom().getBlockX() == to.getBlockX() &&
+            event.getFrom().getBlockZ() == to.getBlockZ()) {
             return;
         }
 
         Player player = event.getPlayer();
+
+        // Classify the player again when they enter another chunk
+        if (event.getFrom().getBlockX() >> 4 != to.getBlockX() >> 4 ||
+            event.getFrom().getBlockZ() >> 4 != to.getBlockZ() >> 4 ||
+            event.getFrom().getWorld() != to.getWorld()) {
+            plugin.getWorldBorderManager().getZoneTracker().update(player, to);
+        }
+
+        BorderSnapshot border = plugin.getWorldBorderManager().getSnapshot(to.getWorld());
+        if (border == null) {
+            return;
+        }
         
         // Check if player is outside the border
-        if (plugin.getWorldBorderManager().isOutsideBorder(event.getTo())) {
+        if (border.isOutside(to.getX(), to.getZ())) {
             // Send warning message (with cooldown)
-            UUID playerId = player.getUniqueId();
+            PlayerSession session = plugin.getSessionManager().get(player);
             long currentTime = System.currentTimeMillis();
             
-            if (!lastWarningTime.containsKey(playerId) || 
-                currentTime - lastWarningTime.get(playerId) > WARNING_COOLDOWN) {
+            if (currentTime - session.getLastBorderWarning() > WARNING_COOLDOWN) {
                 
                 player.sendMessage(ColorUtils.colorize(
                         plugin.getConfigManager().getWorldBorderOutsideMessage()));
-                lastWarningTime.put(playerId, currentTime);
+                session.setLastBorderWarning(currentTime);
             }
             
             // If player is trying to move way outside the border, cancel the move
-            double distanceFromBorder = plugin.getWorldBorderManager().getDistanceOutsideBorder(event.getTo());
+            double distanceFromBorder = border.distanceOutside(to.getX(), to.getZ());
             if (distanceFromBorder > 20.0) { // If more than 20 blocks outside, cancel movement
                 event.setCancelled(true);
                 player.sendMessage(ColorUtils.colorize("&c&lYou cannot go that far outside the world border!"));
@@ -106,10 +126,6 @@ public class BorderListener implements Listener {
 
     @EventHandler
     public void onPlayerTeleport(PlayerTeleportEvent event) {
-        if (!plugin.getConfigManager().isWorldBorderEnabled()) {
-            return;
-        }
-
         Player player = event.getPlayer();
         
         // Check if teleport destination is outside the border
@@ -120,22 +136,40 @@ public class BorderListener implements Listener {
         }
     }
     
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPlayerTeleported(PlayerTeleportEvent event) {
+        plugin.getWorldBorderManager().getZoneTracker().update(event.getPlayer(), event.getTo());
+    }
+
+    @EventHandler
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        plugin.getWorldBorderManager().getZoneTracker().update(event.getPlayer(), event.getPlayer().getLocation());
+    }
+
+    @EventHandler
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        plugin.getWorldBorderManager().getZoneTracker().remove(event.getPlayer());
+    }
+    
     @EventHandler
     public void onPlayerDropItem(PlayerDropItemEvent event) {
-        if (!plugin.getConfigManager().isWorldBorderEnabled()) {
-            return;
-        }
-        
         Player player = event.getPlayer();
         Location playerLoc = player.getLocation();
+        BorderSnapshot border = plugin.getWorldBorderManager().getSnapshot(playerLoc.getWorld());
+        if (border == null) {
+            return;
+        }
         
         // If player is near the border, check if they're trying to throw items outside
-        if (plugin.getWorldBorderManager().isNearBorder(playerLoc, 5.0)) {
-            // Get player's looking direction
-            Location targetLoc = playerLoc.clone().add(player.getLocation().getDirection().multiply(5));
+        if (border.isNear(playerLoc.getX(), playerLoc.getZ(), 5.0)) {
+            // Point 5 blocks along the player's looking direction, as in Location.getDirection()
+            double yaw = Math.toRadians(playerLoc.getYaw());
+            double horizontal = 5 * Math.cos(Math.toRadians(playerLoc.getPitch()));
+            double targetX = playerLoc.getX() - horizontal * Math.sin(yaw);
+            double targetZ = playerLoc.getZ() + horizontal * Math.cos(yaw);
             
             // Check if the target location would be outside the border
-            if (plugin.getWorldBorderManager().isOutsideBorder(targetLoc)) {
+            if (border.isOutside(targetX, targetZ)) {
                 event.setCancelled(true);
                 player.sendMessage(ColorUtils.colorize("&cYou cannot throw items outside the world border!"));
             }
@@ -144,23 +178,16 @@ public class BorderListener implements Listener {
     
     @EventHandler(priority = EventPriority.HIGHEST)
     public void onPlayerRespawn(PlayerRespawnEvent event) {
-        if (!plugin.getConfigManager().isWorldBorderEnabled()) {
-            return;
-        }
-        
         // Ensure players don't respawn outside the border
         if (plugin.getWorldBorderManager().isOutsideBorder(event.getRespawnLocation())) {
             // If respawn location is outside border, set it to world spawn
             event.setRespawnLocation(event.getRespawnLocation().getWorld().getSpawnLocation());
         }
+        plugin.getWorldBorderManager().getZoneTracker().update(event.getPlayer(), event.getRespawnLocation());
     }
     
     @EventHandler
     public void onPlayerDeath(PlayerDeathEvent event) {
-        if (!plugin.getConfigManager().isWorldBorderEnabled()) {
-            return;
-        }
-        
         // Check if player died outside the border
         if (plugin.getWorldBorderManager().isOutsideBorder(event.getEntity().getLocation())) {
             // Customize death message for border deaths
@@ -2,6 +2,7 @@ package com.lifesteal.listeners;
 
 import com.lifesteal.LifeSteal;
 import com.lifesteal.gui.RevivalGUI;
+import com.lifesteal.managers.PlayerSession;
 import com.lifesteal.utils.ColorUtils;
 import org.bukkit.Material;
 import org.bukkit.entity.Player;
@@ -11,15 +12,9 @@ import org.bukkit.event.block.Action;
 import org.bukkit.event.player.PlayerInteractEvent;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.Sound;
-import org.bukkit.metadata.FixedMetadataValue;
-
-import java.util.HashMap;
-import java.util.UUID;
 
 public class ItemListener implements Listener {
     private final LifeSteal plugin;
-    private final HashMap<UUID, Long> heartCooldowns = new HashMap<>();
-    private final HashMap<UUID, Long> reviveCooldowns = new HashMap<>();
 
     public ItemListener(LifeSteal plugin) {
         this.plugin = plugin;
@@ -75,7 +70,8 @@ public class ItemListener implements Listener {
         }
 
         long cooldown = plugin.getConfigManager().getItemsConfig().getInt("heart-item.cooldown") * 1000L;
-        long timeLeft = getCooldownTimeLeft(player.getUniqueId(), heartCooldowns, cooldown);
+        PlayerSession session = plugin.getSessionManager().get(player);
+        long timeLeft = getCooldownTimeLeft(session.getLastHeartItemUse(), cooldown);
 
         if (timeLeft > 0) {
             player.sendMessage(ColorUtils.colorize("&cYou must wait " + (timeLeft / 1000) + " seconds before using this again!"));
@@ -117,7 +113,7 @@ public class ItemListener implements Listener {
 
         player.sendMessage(ColorUtils.colorize(plugin.getConfigManager().getConfig().getString("messages.heart-gain", "&aYou gained a heart!")));
 
-        heartCooldowns.put(player.getUniqueId(), System.currentTimeMillis());
+        session.setLastHeartItemUse(System.currentTimeMillis());
     }
 
     private void handleReviveItem(Player player, ItemStack item) {
@@ -126,17 +122,14 @@ public class ItemListener implements Listener {
             return;
         }
 
-        // Store the item in player's metadata to be consumed only when a revival happens
-        player.setMetadata("lifesteal_revival_item", new org.bukkit.metadata.FixedMetadataValue(plugin, "revive-item"));
-        
-        // Open revival GUI
-        new RevivalGUI(plugin, player).open();
+        // Open revival GUI, which consumes the item only when a revival happens
+        new RevivalGUI(plugin, player, "revive-item").open();
     }
 
-    private long getCooldownTimeLeft(UUID uuid, HashMap<UUID, Long> cooldowns, long cooldownTime) {
-        if (!cooldowns.containsKey(uuid)) return 0;
+    private long getCooldownTimeLeft(long lastUse, long cooldownTime) {
+        if (lastUse == 0) return 0;
         
-        long timePassed = System.currentTimeMillis() - cooldowns.get(uuid);
+        long timePassed = System.currentTimeMillis() - lastUse;
         return Math.max(0, cooldownTime - timePassed);
     }
     
@@ -144,11 +137,8 @@ public class ItemListener implements Listener {
      * Handles the use of a Revival Heart item (from rare bounty)
      */
     private void handleRevivalHeartItem(Player player, ItemStack item) {
-        // Store the item in player's metadata to be consumed only when a revival happens
-        player.setMetadata("lifesteal_revival_item", new org.bukkit.metadata.FixedMetadataValue(plugin, "revival-heart"));
-        
-        // Open the revival GUI
-        new RevivalGUI(plugin, player).open();
+        // Open the revival GUI, which consumes the item only when a revival happens
+        new RevivalGUI(plugin, player, "revival-heart").open();
         
         // Play special sound
         player.playSound(player.getLocation(), Sound.ITEM_TOTEM_USE, 1.0f, 1.0f);
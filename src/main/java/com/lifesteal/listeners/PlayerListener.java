@@ -1,46 +1,60 @@
 package com.lifesteal.listeners;
 
 import com.lifesteal.LifeSteal;
+import com.lifesteal.managers.PlayerSession;
+import org.bukkit.entity.AnimalTamer;
 import org.bukkit.entity.Entity;
 import org.bukkit.entity.Player;
+import org.bukkit.entity.Projectile;
+import org.bukkit.entity.Tameable;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.entity.EntityDamageByEntityEvent;
 import org.bukkit.event.entity.PlayerDeathEvent;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
 import org.bukkit.event.player.PlayerJoinEvent;
 import org.bukkit.event.player.PlayerRespawnEvent;
 import org.bukkit.event.player.PlayerQuitEvent;
 import org.bukkit.inventory.ItemStack;
+import org.bukkit.projectiles.ProjectileSource;
 import org.bukkit.GameMode;
-import java.util.HashSet;
-import java.util.Set;
 import java.util.UUID;
 import org.bukkit.Bukkit;
 import com.lifesteal.events.PvPCycleChangeEvent;
 
 public class PlayerListener implements Listener {
     private final LifeSteal plugin;
-    private final Set<UUID> pendingHeartLoss = new HashSet<>();
 
     public PlayerListener(LifeSteal plugin) {
         this.plugin = plugin;
     }
 
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onAsyncPlayerPreLogin(AsyncPlayerPreLoginEvent event) {
+        // Runs on the login thread, so the database reads here never hold up a tick
+        if (event.getLoginResult() != AsyncPlayerPreLoginEvent.Result.ALLOWED) {
+            return;
+        }
+        plugin.getSessionManager().preload(event.getUniqueId());
+    }
+
     @EventHandler
     public void onPlayerJoin(PlayerJoinEvent event) {
         Player player = event.getPlayer();
-        // Set player to survival mode
-        player.setGameMode(GameMode.SURVIVAL);
+        // Take over the session, hearts and allies loaded during login
+        PlayerSession session = plugin.getSessionManager().open(player);
+        plugin.getNameCache().remember(player);
+
+        // Set player to survival mode, unless they were eliminated into spectator mode
+        if (session.isEliminated() && plugin.getConfigManager().getEliminationMode().equalsIgnoreCase("spectator")) {
+            player.setGameMode(GameMode.SPECTATOR);
+        } else {
+            player.setGameMode(GameMode.SURVIVAL);
+        }
         
         if (!player.hasPlayedBefore()) {
-            plugin.getHeartManager().setHearts(player, plugin.getConfigManager().getStartingHearts());
-        }
-
-        // Check if player has pending heart loss from a previous death
-        if (pendingHeartLoss.contains(player.getUniqueId())) {
-            handleHeartLoss(player);
-            pendingHeartLoss.remove(player.getUniqueId());
+            plugin.getHeartManager().setupNewPlayer(player);
         }
 
         // Add player to boss bar if enabled
@@ -55,6 +69,13 @@ public class PlayerListener implements Listener {
         
         // Handle bounty quit penalty
         plugin.getBountyManager().handlePlayerQuit(player);
+
+        // A player who quits on the death screen loses their hearts now, since the session goes away
+        PlayerSession session = plugin.getSessionManager().get(player);
+        if (session.hasPendingHeartLoss()) {
+            session.setPendingHeartLoss(false);
+            handleHeartLoss(player);
+        }
         
         // Handle heart loss on quit if applicable
         if (plugin.getHeartManager().shouldLoseHeartsOnQuit(player)) {
@@ -65,6 +86,9 @@ public class PlayerListener implements Listener {
         if (plugin.getConfigManager().isBossBarEnabled()) {
             plugin.getModeManager().getBossBar().removePlayer(player);
         }
+
+        // Drop the session and flush cached hearts after all quit penalties were applied
+        plugin.getSessionManager().close(player);
     }
 
     @EventHandler
@@ -81,7 +105,7 @@ public class PlayerListener implements Listener {
         } else if (plugin.getConfigManager().isNaturalDeathLoss()) {
             // Natural death (like falling, drowning, etc.)
             // Mark player for heart loss on respawn
-            pendingHeartLoss.add(victim.getUniqueId());
+            plugin.getSessionManager().get(victim).setPendingHeartLoss(true);
         }
     }
 
@@ -90,9 +114,10 @@ public class PlayerListener implements Listener {
         Player player = event.getPlayer();
         
         // Handle heart loss if player was marked for it
-        if (pendingHeartLoss.contains(player.getUniqueId())) {
+        PlayerSession session = plugin.getSessionManager().get(player);
+        if (session.hasPendingHeartLoss()) {
+            session.setPendingHeartLoss(false);
             handleHeartLoss(player);
-            pendingHeartLoss.remove(player.getUniqueId());
         }
     }
 
@@ -113,21 +138,58 @@ public class PlayerListener implements Listener {
     @EventHandler(priority = EventPriority.HIGH)
     public void onEntityDamageByEntity(EntityDamageByEntityEvent event) {
         // Check if both entities are players
-        if (!(event.getDamager() instanceof Player) || !(event.getEntity() instanceof Player)) {
+        if (event.getDamager() instanceof Player && event.getEntity() instanceof Player) {
+            Player attacker = (Player) event.getDamager();
+
+            // If we're in PVE mode, cancel player vs player damage
+            if (!plugin.getModeManager().isPvPMode()) {
+                // Cancel the damage event
+                event.setCancelled(true);
+
+                // Send a message to the attacker
+                attacker.sendMessage(org.bukkit.ChatColor.RED + "PvP is currently disabled! You can only attack players during PvP mode.");
+                return;
+            }
+        }
+
+        if (event.isCancelled() || plugin.getConfigManager().isAllyFriendlyFireEnabled()) {
             return;
         }
-        
-        Player attacker = (Player) event.getDamager();
-        Player victim = (Player) event.getEntity();
-        
-        // If we're in PVE mode, cancel player vs player damage
-        if (!plugin.getModeManager().isPvPMode()) {
-            // Cancel the damage event
+
+        // Runs for every hit in a fight, so only in-memory ally data is consulted
+        UUID attackerId = getResponsiblePlayer(event.getDamager());
+        UUID victimId = getResponsiblePlayer(event.getEntity());
+        if (attackerId == null || victimId == null || attackerId.equals(victimId)) {
+            return;
+        }
+        if (plugin.getAllyManager().isFriendly(attackerId, victimId)) {
             event.setCancelled(true);
-            
-            // Send a message to the attacker
-            attacker.sendMessage(org.bukkit.ChatColor.RED + "PvP is currently disabled! You can only attack players during PvP mode.");
+            if (event.getDamager() instanceof Player) {
+                ((Player) event.getDamager()).sendMessage(org.bukkit.ChatColor.RED + "You cannot hurt your allies!");
+            }
+        }
+    }
+
+    /**
+     * The player behind an entity: the player itself, the shooter of a projectile
+     * or the owner of a tamed animal. Returns null for anything else.
+     */
+    private UUID getResponsiblePlayer(Entity entity) {
+        if (entity instanceof Player) {
+            return entity.getUniqueId();
+        }
+        if (entity instanceof Projectile) {
+            ProjectileSource shooter = ((Projectile) entity).getShooter();
+            if (shooter instanceof Entity) {
+                return getResponsiblePlayer((Entity) shooter);
+            }
+            return null;
+        }
+        if (entity instanceof Tameable) {
+            AnimalTamer owner = ((Tameable) entity).getOwner();
+            return owner != null ? owner.getUniqueId() : null;
         }
+        return null;
     }
 
     @EventHandler
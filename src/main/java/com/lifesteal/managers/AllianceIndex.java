@@ -0,0 +1,170 @@
+package com.lifesteal.managers;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Groups players into alliances: everyone connected through a chain of allies.
+ * Every player points straight at their alliance, so lookups are a single hash
+ * lookup. Joining two alliances relabels the smaller one. Removing an ally may
+ * split an alliance, so that alliance is rebuilt from its own ally pairs.
+ * Players without allies are not stored and count as an alliance of one.
+ * Server thread only.
+ */
+public class AllianceIndex {
+    private final Map<UUID, Set<UUID>> edges = new HashMap<>();
+    private final Map<UUID, Alliance> alliances = new HashMap<>();
+    private final Set<UUID> online = new HashSet<>();
+
+    private static final class Alliance {
+        private final Set<UUID> members = new HashSet<>();
+        private final Set<UUID> online = new HashSet<>();
+    }
+
+    /**
+     * Replaces the index with the given ally pairs, as returned by
+     * {@link DatabaseManager#getAllAllies()}.
+     */
+    public void build(Map<UUID, List<UUID>> allies) {
+        edges.clear();
+        alliances.clear();
+        for (Map.Entry<UUID, List<UUID>> entry : allies.entrySet()) {
+            for (UUID ally : entry.getValue()) {
+                addAlly(entry.getKey(), ally);
+            }
+        }
+    }
+
+    public void addAlly(UUID player, UUID ally) {
+        edges.computeIfAbsent(player, k -> new HashSet<>()).add(ally);
+        edges.computeIfAbsent(ally, k -> new HashSet<>()).add(player);
+
+        Alliance first = allianceOf(player);
+        Alliance second = allianceOf(ally);
+        if (first == second) {
+            return;
+        }
+        Alliance large = first.members.size() >= second.members.size() ? first : second;
+        Alliance small = large == first ? second : first;
+        for (UUID member : small.members) {
+            alliances.put(member, large);
+        }
+        large.members.addAll(small.members);
+        large.online.addAll(small.online);
+    }
+
+    public void removeAlly(UUID player, UUID ally) {
+        removeEdge(player, ally);
+        removeEdge(ally, player);
+
+        Alliance alliance = alliances.get(player);
+        if (alliance == null || alliance != alliances.get(ally)) {
+            return;
+        }
+        // Walk the old alliance again and hand out new groups to whatever is still connected
+        for (UUID member : alliance.members) {
+            alliances.remove(member);
+        }
+        for (UUID start : alliance.members) {
+            if (alliances.containsKey(start) || !edges.containsKey(start)) {
+                continue;
+            }
+            Alliance rebuilt = new Alliance();
+            Deque<UUID> queue = new ArrayDeque<>();
+            queue.add(start);
+            alliances.put(start, rebuilt);
+            while (!queue.isEmpty()) {
+                UUID current = queue.poll();
+                rebuilt.members.add(current);
+                if (online.contains(current)) {
+                    rebuilt.online.add(current);
+                }
+                for (UUID next : edges.getOrDefault(current, Collections.emptySet())) {
+                    if (!alliances.containsKey(next)) {
+                        alliances.put(next, rebuilt);
+                        queue.add(next);
+                    }
+                }
+            }
+        }
+    }
+
+    private void removeEdge(UUID from, UUID to) {
+        Set<UUID> set = edges.get(from);
+        if (set != null) {
+            set.remove(to);
+            if (set.isEmpty()) {
+                edges.remove(from);
+            }
+        }
+    }
+
+    private Alliance allianceOf(UUID player) {
+        return alliances.computeIfAbsent(player, uuid -> {
+            Alliance alliance = new Alliance();
+            alliance.members.add(uuid);
+            if (online.contains(uuid)) {
+                alliance.online.add(uuid);
+            }
+            return alliance;
+        });
+    }
+
+    public void setOnline(UUID player, boolean isOnline) {
+        Alliance alliance = alliances.get(player);
+        if (isOnline) {
+            online.add(player);
+            if (alliance != null) {
+                alliance.online.add(player);
+            }
+        } else {
+            online.remove(player);
+            if (alliance != null) {
+                alliance.online.remove(player);
+            }
+        }
+    }
+
+    public boolean isSameAlliance(UUID player, UUID other) {
+        if (player.equals(other)) {
+            return true;
+        }
+        Alliance alliance = alliances.get(player);
+        return alliance != null && alliance == alliances.get(other);
+    }
+
+    public int getSize(UUID player) {
+        Alliance alliance = alliances.get(player);
+        return alliance != null ? alliance.members.size() : 1;
+    }
+
+    /**
+     * Size of the alliance the two players would be in after becoming allies.
+     */
+    public int getSizeIfJoined(UUID player, UUID other) {
+        if (isSameAlliance(player, other)) {
+            return getSize(player);
+        }
+        return getSize(player) + getSize(other);
+    }
+
+    public Set<UUID> getMembers(UUID player) {
+        Alliance alliance = alliances.get(player);
+        return alliance != null ? Collections.unmodifiableSet(alliance.members) : Collections.singleton(player);
+    }
+
+    public Set<UUID> getOnlineMembers(UUID player) {
+        Alliance alliance = alliances.get(player);
+        if (alliance != null) {
+            return Collections.unmodifiableSet(alliance.online);
+        }
+        return online.contains(player) ? Collections.singleton(player) : Collections.emptySet();
+    }
+}
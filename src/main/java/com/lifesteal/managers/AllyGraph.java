@@ -0,0 +1,162 @@
+package com.lifesteal.managers;
+
+import com.lifesteal.LifeSteal;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * In-memory view of the allies table: every loaded player maps to the set of their allies.
+ * Players are loaded lazily (normally on join) through the database thread, and
+ * membership checks on loaded players are a single hash lookup without allocation.
+ * Changes update memory right away and are persisted in the background.
+ */
+public class AllyGraph {
+    private final LifeSteal plugin;
+    private final Map<UUID, Set<UUID>> allies = new ConcurrentHashMap<>();
+    // Loads that are still waiting for the database, completed once the set is installed
+    private final Map<UUID, CompletableFuture<Set<UUID>>> loading = new ConcurrentHashMap<>();
+
+    public AllyGraph(LifeSteal plugin) {
+        this.plugin = plugin;
+    }
+
+    public boolean isLoaded(UUID player) {
+        return allies.containsKey(player);
+    }
+
+    /**
+     * Loads a player's allies on the database thread. Completes immediately if already loaded.
+     */
+    public CompletableFuture<Set<UUID>> loadAsync(UUID player) {
+        Set<UUID> loaded = allies.get(player);
+        if (loaded != null) {
+            return CompletableFuture.completedFuture(Collections.unmodifiableSet(loaded));
+        }
+        CompletableFuture<Set<UUID>> future = new CompletableFuture<>();
+        CompletableFuture<Set<UUID>> pending = loading.putIfAbsent(player, future);
+        if (pending != null) {
+            return pending;
+        }
+        // Attached outside the map, since the query may already be done and run this right away
+        plugin.getDatabaseManager().getAlliesAsync(player).whenComplete((list, error) -> {
+            if (error != null) {
+                loading.remove(player, future);
+                future.completeExceptionally(error);
+                return;
+            }
+            future.complete(Collections.unmodifiableSet(install(player, list, future)));
+        });
+        return future;
+    }
+
+    /**
+     * Puts the loaded set in memory, unless the player was unloaded while it was
+     * being read, so sets of players who already left are not kept.
+     */
+    private Set<UUID> install(UUID player, List<UUID> list, CompletableFuture<Set<UUID>> load) {
+        Set<UUID> set = ConcurrentHashMap.newKeySet();
+        set.addAll(list);
+        Set<UUID> previous = allies.putIfAbsent(player, set);
+        // Removed only after installing, so an unload in between is always noticed
+        if (!loading.remove(player, load) && previous == null) {
+            allies.remove(player, set);
+        }
+        return previous != null ? previous : set;
+    }
+
+    /**
+     * Returns a player's allies, loading them first if needed. Loading waits for the
+     * database thread, so callers on the server thread should prefer {@link #loadAsync(UUID)}
+     * for players that may not be loaded. Must not be called from the database thread.
+     */
+    public Set<UUID> getAllies(UUID player) {
+        Set<UUID> loaded = allies.get(player);
+        if (loaded != null) {
+            return Collections.unmodifiableSet(loaded);
+        }
+        return loadAsync(player).join();
+    }
+
+    public boolean isAlly(UUID player, UUID target) {
+        Set<UUID> set = allies.get(player);
+        if (set != null) {
+            return set.contains(target);
+        }
+        // The relation is symmetric, so the other side answers just as well
+        set = allies.get(target);
+        if (set != null) {
+            return set.contains(player);
+        }
+        return getAllies(player).contains(target);
+    }
+
+    /**
+     * Like {@link #isAlly(UUID, UUID)} but never touches the database. Returns false
+     * if neither player is loaded. Safe to call from any thread.
+     */
+    public boolean isAllyCached(UUID player, UUID target) {
+        Set<UUID> set = allies.get(player);
+        if (set != null) {
+            return set.contains(target);
+        }
+        set = allies.get(target);
+        return set != null && set.contains(player);
+    }
+
+    public CompletableFuture<Void> addAlly(UUID player, UUID ally) {
+        update(player, set -> set.add(ally));
+        update(ally, set -> set.add(player));
+        return plugin.getDatabaseManager().addAllyAsync(player, ally);
+    }
+
+    public CompletableFuture<Void> removeAlly(UUID player, UUID ally) {
+        update(player, set -> set.remove(ally));
+        update(ally, set -> set.remove(player));
+        return plugin.getDatabaseManager().removeAllyAsync(player, ally);
+    }
+
+    /**
+     * Applies a change to a player's set if it is in memory. A player that is still
+     * loading may have read the table before this change was queued, so the change is
+     * applied again once the load has installed its set. Players that are not loaded
+     * need nothing: their next load runs after the queued write.
+     */
+    private void update(UUID player, Consumer<Set<UUID>> change) {
+        Set<UUID> set = allies.get(player);
+        if (set != null) {
+            change.accept(set);
+            return;
+        }
+        CompletableFuture<Set<UUID>> pending = loading.get(player);
+        if (pending != null) {
+            pending.thenRun(() -> {
+                Set<UUID> installed = allies.get(player);
+                if (installed != null) {
+                    change.accept(installed);
+                }
+            });
+            return;
+        }
+        // The load may have finished between the two lookups above
+        set = allies.get(player);
+        if (set != null) {
+            change.accept(set);
+        }
+    }
+
+    public void unload(UUID player) {
+        allies.remove(player);
+        loading.remove(player);
+    }
+
+    public int getLoadedCount() {
+        return allies.size();
+    }
+}
@@ -6,15 +6,77 @@ import org.bukkit.OfflinePlayer;
 import org.bukkit.entity.Player;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 public class AllyManager {
     private final LifeSteal plugin;
-    private static final long REQUEST_TIMEOUT = 60000; // 1 minute in milliseconds
+    private final AllyGraph graph;
+    private final AllyRequests requests;
+    private final AllianceIndex alliances = new AllianceIndex();
+    private final boolean alliancesEnabled;
+
+    /**
+     * Relationship between a player and a target, as seen from the player.
+     */
+    public enum RequestState {
+        NONE,
+        ALLIED,
+        OUTGOING,
+        INCOMING
+    }
 
     public AllyManager(LifeSteal plugin) {
         this.plugin = plugin;
+        this.graph = new AllyGraph(plugin);
+        this.requests = new AllyRequests(plugin);
+        this.requests.start();
+        this.alliancesEnabled = plugin.getConfigManager().isAlliancesEnabled();
+        if (alliancesEnabled) {
+            // Alliances span offline players too, so the index needs every ally pair
+            alliances.build(plugin.getDatabaseManager().getAllAllies());
+        }
+    }
+
+    /**
+     * Starts loading a player's allies into memory. Called by {@link SessionManager} on join.
+     */
+    public void loadPlayer(Player player) {
+        graph.loadAsync(player.getUniqueId());
+        alliances.setOnline(player.getUniqueId(), true);
+    }
+
+    public void unloadPlayer(Player player) {
+        unloadPlayer(player.getUniqueId());
+    }
+
+    public void unloadPlayer(UUID uuid) {
+        graph.unload(uuid);
+        alliances.setOnline(uuid, false);
+    }
+
+    /**
+     * Loads a player's allies ahead of their join. Safe to call from the login thread.
+     */
+    public CompletableFuture<Set<UUID>> preload(UUID uuid) {
+        return graph.loadAsync(uuid);
+    }
+
+    public AllyGraph getGraph() {
+        return graph;
+    }
+
+    public AllyRequests getRequests() {
+        return requests;
+    }
+
+    public void shutdown() {
+        requests.stop();
     }
 
     public boolean sendAllyRequest(Player sender, Player target) {
@@ -25,29 +87,21 @@ public class AllyManager {
             return false;
         }
 
-        plugin.getDatabaseManager().addAllyRequest(sender.getUniqueId(), target.getUniqueId());
-        return true;
+        return requests.add(sender.getUniqueId(), target.getUniqueId());
     }
 
     public boolean acceptAllyRequest(Player player, Player requester) {
         player.playSound(player.getLocation(), org.bukkit.Sound.ENTITY_EXPERIENCE_ORB_PICKUP, 1.0f, 1.0f);
         requester.playSound(requester.getLocation(), org.bukkit.Sound.ENTITY_EXPERIENCE_ORB_PICKUP, 1.0f, 1.0f);
 
-        if (!hasPendingIncomingRequest(player, requester)) {
-            return false;
-        }
-
-        plugin.getDatabaseManager().removeAllyRequest(requester.getUniqueId(), player.getUniqueId());
-        plugin.getDatabaseManager().addAlly(player.getUniqueId(), requester.getUniqueId());
-        return true;
+        return accept(player.getUniqueId(), requester.getUniqueId());
     }
 
     public boolean cancelAllyRequest(Player player, Player target) {
         player.playSound(player.getLocation(), org.bukkit.Sound.BLOCK_NOTE_BLOCK_BASS, 1.0f, 1.0f);
         target.playSound(target.getLocation(), org.bukkit.Sound.BLOCK_NOTE_BLOCK_BASS, 1.0f, 1.0f);
 
-        plugin.getDatabaseManager().removeAllyRequest(player.getUniqueId(), target.getUniqueId());
-        return true;
+        return requests.remove(player.getUniqueId(), target.getUniqueId());
     }
 
     public boolean removeAlly(Player player, OfflinePlayer ally) {
@@ -56,22 +110,28 @@ public class AllyManager {
             ally.getPlayer().playSound(ally.getPlayer().getLocation(), org.bukkit.Sound.ENTITY_VILLAGER_NO, 1.0f, 1.0f);
         }
 
-        plugin.getDatabaseManager().removeAlly(player.getUniqueId(), ally.getUniqueId());
+        removeAlly(player.getUniqueId(), ally.getUniqueId());
         return true;
     }
 
     public boolean isAlly(Player player, Player target) {
-        List<UUID> allies = plugin.getDatabaseManager().getAllies(player.getUniqueId());
-        return allies.contains(target.getUniqueId());
+        return graph.isAlly(player.getUniqueId(), target.getUniqueId());
     }
 
     public boolean isAlly(Player player, OfflinePlayer target) {
-        List<UUID> allies = plugin.getDatabaseManager().getAllies(player.getUniqueId());
-        return allies.contains(target.getUniqueId());
+        return graph.isAlly(player.getUniqueId(), target.getUniqueId());
+    }
+
+    /**
+     * Ally check for event handlers. Only consults allies already in memory, which
+     * covers every online player, so it never waits for the database.
+     */
+    public boolean isAllyCached(UUID player, UUID target) {
+        return graph.isAllyCached(player, target);
     }
 
     public List<OfflinePlayer> getAllies(Player player) {
-        List<UUID> allyUUIDs = plugin.getDatabaseManager().getAllies(player.getUniqueId());
+        Set<UUID> allyUUIDs = graph.getAllies(player.getUniqueId());
         List<OfflinePlayer> allies = new ArrayList<>();
 
         for (UUID uuid : allyUUIDs) {
@@ -95,15 +155,13 @@ public class AllyManager {
     }
 
     public boolean hasPendingIncomingRequest(Player player, Player requester) {
-        List<UUID> requests = plugin.getDatabaseManager().getPendingAllyRequests(player.getUniqueId());
-        return requests.contains(requester.getUniqueId());
+        return requests.has(requester.getUniqueId(), player.getUniqueId());
     }
 
     public List<Player> getPendingIncomingRequests(Player player) {
-        List<UUID> requestUUIDs = plugin.getDatabaseManager().getPendingAllyRequests(player.getUniqueId());
         List<Player> requesters = new ArrayList<>();
 
-        for (UUID uuid : requestUUIDs) {
+        for (UUID uuid : requests.getIncoming(player.getUniqueId())) {
             Player requester = Bukkit.getPlayer(uuid);
             if (requester != null && requester.isOnline()) {
                 requesters.add(requester);
@@ -113,12 +171,187 @@ public class AllyManager {
         return requesters;
     }
 
-    public void cleanupTimedOutRequests() {
-        plugin.getDatabaseManager().cleanupTimedOutRequests(REQUEST_TIMEOUT);
+    /**
+     * Sorts the given players into allies, request senders and request receivers of
+     * the player in one pass over in-memory data, instead of one lookup per player.
+     */
+    public AllyRelations getRelations(Player player, Collection<UUID> others) {
+        UUID playerId = player.getUniqueId();
+        return relations(playerId, graph.getAllies(playerId), others);
+    }
+
+    private AllyRelations relations(UUID playerId, Set<UUID> allyIds, Collection<UUID> others) {
+        Set<UUID> incoming = requests.getIncoming(playerId);
+        Set<UUID> allies = new HashSet<>();
+        Set<UUID> requesters = new HashSet<>();
+        Set<UUID> requested = new HashSet<>();
+        for (UUID other : others) {
+            if (allyIds.contains(other)) {
+                allies.add(other);
+            }
+            if (incoming.contains(other)) {
+                requesters.add(other);
+            }
+            if (requests.has(playerId, other)) {
+                requested.add(other);
+            }
+        }
+        return new AllyRelations(allies, requesters, requested);
     }
 
     public boolean hasPendingOutgoingRequest(Player sender, Player target) {
-    List<UUID> requests = plugin.getDatabaseManager().getPendingAllyRequests(target.getUniqueId());
-    return requests.contains(sender.getUniqueId());
+        return requests.has(sender.getUniqueId(), target.getUniqueId());
+    }
+
+    private boolean accept(UUID playerId, UUID requesterId) {
+        if (!requests.has(requesterId, playerId) || !canJoinAlliance(playerId, requesterId)) {
+            return false;
+        }
+        requests.remove(requesterId, playerId);
+        graph.addAlly(playerId, requesterId);
+        if (alliancesEnabled) {
+            alliances.addAlly(playerId, requesterId);
+        }
+        return true;
+    }
+
+    private CompletableFuture<Void> removeAlly(UUID playerId, UUID allyId) {
+        if (alliancesEnabled) {
+            alliances.removeAlly(playerId, allyId);
+        }
+        return graph.removeAlly(playerId, allyId);
+    }
+
+    // Alliances: groups of players connected through allies. When alliances are
+    // disabled every player's alliance is just themselves and their direct allies.
+
+    public boolean isAlliancesEnabled() {
+        return alliancesEnabled;
+    }
+
+    /**
+     * Whether two players are on the same side: in the same alliance, or direct
+     * allies when alliances are disabled. Never touches the database.
+     */
+    public boolean isFriendly(UUID player, UUID other) {
+        if (alliancesEnabled) {
+            return alliances.isSameAlliance(player, other);
+        }
+        return isAllyCached(player, other);
+    }
+
+    /**
+     * Whether becoming allies would keep the joined alliance within alliances.max-size.
+     */
+    public boolean canJoinAlliance(UUID player, UUID other) {
+        if (!alliancesEnabled) {
+            return true;
+        }
+        int maxSize = plugin.getConfigManager().getMaxAllianceSize();
+        return maxSize <= 0 || alliances.getSizeIfJoined(player, other) <= maxSize;
+    }
+
+    public int getAllianceSize(Player player) {
+        return alliances.getSize(player.getUniqueId());
+    }
+
+    public Set<UUID> getAllianceMembers(Player player) {
+        return alliances.getMembers(player.getUniqueId());
+    }
+
+    public List<Player> getOnlineAllianceMembers(Player player) {
+        List<Player> members = new ArrayList<>();
+        for (UUID uuid : alliances.getOnlineMembers(player.getUniqueId())) {
+            Player member = Bukkit.getPlayer(uuid);
+            if (member != null) {
+                members.add(member);
+            }
+        }
+        return members;
+    }
+
+    // Asynchronous variants. Database work happens on the database thread;
+    // sounds are played right away on the calling (server) thread. Requests are
+    // kept in memory, so request-only calls complete immediately.
+
+    public CompletableFuture<RequestState> getRequestStateAsync(Player player, Player target) {
+        UUID playerId = player.getUniqueId();
+        UUID targetId = target.getUniqueId();
+        return graph.loadAsync(playerId).thenApplyAsync(allies -> {
+            if (allies.contains(targetId)) {
+                return RequestState.ALLIED;
+            }
+            if (requests.has(playerId, targetId)) {
+                return RequestState.OUTGOING;
+            }
+            if (requests.has(targetId, playerId)) {
+                return RequestState.INCOMING;
+            }
+            return RequestState.NONE;
+        }, mainThread());
+    }
+
+    public CompletableFuture<Boolean> sendAllyRequestAsync(Player sender, Player target) {
+        sender.playSound(sender.getLocation(), org.bukkit.Sound.UI_BUTTON_CLICK, 1.0f, 1.0f);
+        target.playSound(target.getLocation(), org.bukkit.Sound.UI_BUTTON_CLICK, 1.0f, 1.0f);
+
+        UUID senderId = sender.getUniqueId();
+        UUID targetId = target.getUniqueId();
+        return graph.loadAsync(senderId).thenApplyAsync(
+                allies -> !allies.contains(targetId) && requests.add(senderId, targetId), mainThread());
+    }
+
+    public CompletableFuture<Boolean> acceptAllyRequestAsync(Player player, Player requester) {
+        player.playSound(player.getLocation(), org.bukkit.Sound.ENTITY_EXPERIENCE_ORB_PICKUP, 1.0f, 1.0f);
+        requester.playSound(requester.getLocation(), org.bukkit.Sound.ENTITY_EXPERIENCE_ORB_PICKUP, 1.0f, 1.0f);
+
+        return CompletableFuture.completedFuture(accept(player.getUniqueId(), requester.getUniqueId()));
+    }
+
+    public CompletableFuture<Void> cancelAllyRequestAsync(Player player, Player target) {
+        player.playSound(player.getLocation(), org.bukkit.Sound.BLOCK_NOTE_BLOCK_BASS, 1.0f, 1.0f);
+        target.playSound(target.getLocation(), org.bukkit.Sound.BLOCK_NOTE_BLOCK_BASS, 1.0f, 1.0f);
+
+        requests.remove(player.getUniqueId(), target.getUniqueId());
+        return CompletableFuture.completedFuture(null);
+    }
+
+    public CompletableFuture<Void> removeAllyAsync(Player player, OfflinePlayer ally) {
+        player.playSound(player.getLocation(), org.bukkit.Sound.ENTITY_VILLAGER_NO, 1.0f, 1.0f);
+        if (ally.isOnline()) {
+            ally.getPlayer().playSound(ally.getPlayer().getLocation(), org.bukkit.Sound.ENTITY_VILLAGER_NO, 1.0f, 1.0f);
+        }
+
+        return removeAlly(player.getUniqueId(), ally.getUniqueId());
+    }
+
+    public CompletableFuture<Boolean> isAllyAsync(Player player, OfflinePlayer target) {
+        UUID targetId = target.getUniqueId();
+        return graph.loadAsync(player.getUniqueId()).thenApply(allies -> allies.contains(targetId));
+    }
+
+    public CompletableFuture<Boolean> hasPendingIncomingRequestAsync(Player player, Player requester) {
+        return CompletableFuture.completedFuture(hasPendingIncomingRequest(player, requester));
+    }
+
+    /**
+     * Like {@link #getRelations(Player, Collection)} for players who may be offline. If their
+     * allies are not in memory, only the given players are checked, with one batched query.
+     */
+    public CompletableFuture<AllyRelations> getRelationsAsync(UUID playerId, Collection<UUID> others) {
+        if (graph.isLoaded(playerId)) {
+            return CompletableFuture.completedFuture(relations(playerId, graph.getAllies(playerId), others));
+        }
+        List<UUID> candidates = new ArrayList<>(others);
+        return plugin.getDatabaseManager().getAlliesAmongAsync(playerId, candidates)
+                .thenApplyAsync(allies -> relations(playerId, allies, candidates), mainThread());
+    }
+
+    public CompletableFuture<List<UUID>> getAllyIdsAsync(Player player) {
+        return graph.loadAsync(player.getUniqueId()).thenApply(ArrayList::new);
+    }
+
+    private Executor mainThread() {
+        return plugin.getDatabaseManager().getExecutor().mainThread();
     }
 }
\ No newline at end of file
@@ -0,0 +1,32 @@
+package com.lifesteal.managers;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * How a set of players relates to one player, resolved in a single pass.
+ */
+public class AllyRelations {
+    public final Set<UUID> allies;
+    public final Set<UUID> requesters; // Sent the player an ally request
+    public final Set<UUID> requested; // Received an ally request from the player
+
+    public AllyRelations(Set<UUID> allies, Set<UUID> requesters, Set<UUID> requested) {
+        this.allies = Collections.unmodifiableSet(allies);
+        this.requesters = Collections.unmodifiableSet(requesters);
+        this.requested = Collections.unmodifiableSet(requested);
+    }
+
+    public boolean isAlly(UUID uuid) {
+        return allies.contains(uuid);
+    }
+
+    public boolean isRequester(UUID uuid) {
+        return requesters.contains(uuid);
+    }
+
+    public boolean isRequested(UUID uuid) {
+        return requested.contains(uuid);
+    }
+}
@@ -0,0 +1,137 @@
+package com.lifesteal.managers;
+
+import com.lifesteal.LifeSteal;
+import com.lifesteal.utils.ColorUtils;
+import com.lifesteal.utils.TimerWheel;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Pending ally requests. Requests only live for a short time, so they are kept
+ * in memory and expired by a timer wheel that advances once per second.
+ * Server thread only.
+ */
+public class AllyRequests {
+    private static final int WHEEL_SIZE = 64;
+
+    private final LifeSteal plugin;
+    // Receiver -> senders, in the order the requests arrived
+    private final Map<UUID, Set<UUID>> incoming = new HashMap<>();
+    private final TimerWheel<Request> timeouts = new TimerWheel<>(WHEEL_SIZE, this::expire);
+    private BukkitTask tickTask;
+
+    private static final class Request {
+        private final UUID sender;
+        private final UUID receiver;
+
+        private Request(UUID sender, UUID receiver) {
+            this.sender = sender;
+            this.receiver = receiver;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Request)) return false;
+            Request other = (Request) o;
+            return sender.equals(other.sender) && receiver.equals(other.receiver);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(sender, receiver);
+        }
+    }
+
+    public AllyRequests(LifeSteal plugin) {
+        this.plugin = plugin;
+    }
+
+    public void start() {
+        if (tickTask != null) {
+            tickTask.cancel();
+        }
+        tickTask = Bukkit.getScheduler().runTaskTimer(plugin, timeouts::advance, 20L, 20L);
+    }
+
+    public void stop() {
+        if (tickTask != null) {
+            tickTask.cancel();
+            tickTask = null;
+        }
+        timeouts.clear();
+        incoming.clear();
+    }
+
+    /**
+     * Adds a request that expires after allies.request-timeout seconds.
+     * Returns false if the same request is already pending.
+     */
+    public boolean add(UUID sender, UUID receiver) {
+        Request request = new Request(sender, receiver);
+        if (timeouts.contains(request)) {
+            return false;
+        }
+        incoming.computeIfAbsent(receiver, k -> new LinkedHashSet<>()).add(sender);
+        timeouts.schedule(request, plugin.getConfigManager().getAllyRequestTimeout());
+        return true;
+    }
+
+    /**
+     * Removes a pending request. Returns false if there was none.
+     */
+    public boolean remove(UUID sender, UUID receiver) {
+        if (!timeouts.cancel(new Request(sender, receiver))) {
+            return false;
+        }
+        forget(sender, receiver);
+        return true;
+    }
+
+    public boolean has(UUID sender, UUID receiver) {
+        Set<UUID> senders = incoming.get(receiver);
+        return senders != null && senders.contains(sender);
+    }
+
+    public Set<UUID> getIncoming(UUID receiver) {
+        return Collections.unmodifiableSet(incoming.getOrDefault(receiver, Collections.emptySet()));
+    }
+
+    public int size() {
+        return timeouts.size();
+    }
+
+    private void forget(UUID sender, UUID receiver) {
+        Set<UUID> senders = incoming.get(receiver);
+        if (senders != null) {
+            senders.remove(sender);
+            if (senders.isEmpty()) {
+                incoming.remove(receiver);
+            }
+        }
+    }
+
+    private void expire(Request request) {
+        forget(request.sender, request.receiver);
+
+        Player sender = Bukkit.getPlayer(request.sender);
+        Player receiver = Bukkit.getPlayer(request.receiver);
+        if (sender != null) {
+            String name = plugin.getNameCache().getName(request.receiver, "a player");
+            sender.sendMessage(ColorUtils.colorize("&cYour ally request to " + name + " has expired."));
+        }
+        if (receiver != null) {
+            String name = plugin.getNameCache().getName(request.sender, "a player");
+            receiver.sendMessage(ColorUtils.colorize("&cThe ally request from " + name + " has expired."));
+        }
+    }
+}
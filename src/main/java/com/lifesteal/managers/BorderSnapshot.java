@@ -0,0 +1,98 @@
+package com.lifesteal.managers;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+
+import java.util.UUID;
+
+/**
+ * The plugin's border in one world, copied out of the world border when it
+ * changes. Checks against it are plain arithmetic, cheap enough for every move.
+ * While the border shrinks over time its radius is interpolated from the start
+ * time, the same way the server moves the border, instead of asking the border.
+ */
+public final class BorderSnapshot {
+    public final UUID worldId;
+    public final double centerX;
+    public final double centerZ;
+    public final double fromRadius;
+    public final double toRadius;
+    public final long startMillis;
+    public final long durationMillis;
+
+    public BorderSnapshot(UUID worldId, double centerX, double centerZ,
+                          double fromRadius, double toRadius, long startMillis, long durationMillis) {
+        this.worldId = worldId;
+        this.centerX = centerX;
+        this.centerZ = centerZ;
+        this.fromRadius = fromRadius;
+        this.toRadius = toRadius;
+        this.startMillis = startMillis;
+        this.durationMillis = durationMillis;
+    }
+
+    /**
+     * The border of the world, moving from one size to the other over the given time.
+     */
+    public static BorderSnapshot of(World world, double fromSize, double toSize, long startMillis, long durationMillis) {
+        Location center = world.getWorldBorder().getCenter();
+        return new BorderSnapshot(world.getUID(), center.getX(), center.getZ(),
+                fromSize / 2, toSize / 2, startMillis, durationMillis);
+    }
+
+    /**
+     * Current half-size. Only reads the clock while the border is moving.
+     */
+    public double getRadius() {
+        if (durationMillis <= 0) {
+            return toRadius;
+        }
+        long elapsed = System.currentTimeMillis() - startMillis;
+        if (elapsed >= durationMillis) {
+            return toRadius;
+        }
+        return fromRadius + (toRadius - fromRadius) * ((double) elapsed / durationMillis);
+    }
+
+    public boolean isOutside(double x, double z) {
+        double radius = getRadius();
+        return Math.abs(x - centerX) > radius || Math.abs(z - centerZ) > radius;
+    }
+
+    /**
+     * How far outside the border the point is, or 0 if it is inside.
+     */
+    public double distanceOutside(double x, double z) {
+        double radius = getRadius();
+        double dx = Math.abs(x - centerX) - radius;
+        double dz = Math.abs(z - centerZ) - radius;
+
+        if (dx <= 0 && dz <= 0) {
+            return 0;
+        }
+
+        if (dx > 0 && dz > 0) {
+            return Math.sqrt(dx * dx + dz * dz);
+        } else {
+            return Math.max(dx, dz);
+        }
+    }
+
+    /**
+     * How far inside the nearest edge the point is; negative outside. While the
+     * border shrinks this is measured to where it will stop.
+     */
+    public double distanceInside(double x, double z) {
+        return Math.min(getRadius(), toRadius) - Math.max(Math.abs(x - centerX), Math.abs(z - centerZ));
+    }
+
+    /**
+     * Whether the point is within the given distance of either pair of edges.
+     */
+    public boolean isNear(double x, double z, double distance) {
+        double radius = getRadius();
+        double dx = Math.abs(x - centerX);
+        double dz = Math.abs(z - centerZ);
+        return Math.abs(dx - radius) < distance || Math.abs(dz - radius) < distance;
+    }
+}
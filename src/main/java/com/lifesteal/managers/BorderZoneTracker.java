@@ -0,0 +1,87 @@
+package com.lifesteal.managers;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Sorts players by how close they are to the border, so periodic enforcement
+ * only looks at those who could be outside. Players are classified when they
+ * enter a new chunk, teleport, join or respawn, and all of them again when a
+ * border changes. Only players near or outside the border are remembered.
+ * Server thread only.
+ */
+public class BorderZoneTracker {
+    /**
+     * Players further inside than this are {@link Zone#INSIDE}. Larger than a
+     * chunk, so nobody can reach the edge without being classified again.
+     */
+    public static final double NEAR_DISTANCE = 32.0;
+
+    public enum Zone {
+        INSIDE, NEAR, OUTSIDE
+    }
+
+    private final WorldBorderManager borders;
+    private final Map<UUID, Zone> watched = new HashMap<>();
+
+    public BorderZoneTracker(WorldBorderManager borders) {
+        this.borders = borders;
+    }
+
+    /**
+     * Classifies the player at the given location, which may be where they are about to be.
+     */
+    public Zone update(Player player, Location location) {
+        Zone zone = classify(location);
+        if (zone == Zone.INSIDE) {
+            watched.remove(player.getUniqueId());
+        } else {
+            watched.put(player.getUniqueId(), zone);
+        }
+        return zone;
+    }
+
+    private Zone classify(Location location) {
+        BorderSnapshot border = borders.getSnapshot(location.getWorld());
+        if (border == null) {
+            return Zone.INSIDE;
+        }
+        double x = location.getX();
+        double z = location.getZ();
+        if (border.isOutside(x, z)) {
+            return Zone.OUTSIDE;
+        }
+        return border.distanceInside(x, z) < NEAR_DISTANCE ? Zone.NEAR : Zone.INSIDE;
+    }
+
+    /**
+     * Classifies every online player, after a border moved.
+     */
+    public void updateAll() {
+        watched.clear();
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            update(player, player.getLocation());
+        }
+    }
+
+    public void remove(Player player) {
+        watched.remove(player.getUniqueId());
+    }
+
+    public Zone getZone(Player player) {
+        return watched.getOrDefault(player.getUniqueId(), Zone.INSIDE);
+    }
+
+    /**
+     * Players near or outside the border, with the zone they were last put in.
+     */
+    public Map<UUID, Zone> getWatched() {
+        return Collections.unmodifiableMap(watched);
+    }
+}
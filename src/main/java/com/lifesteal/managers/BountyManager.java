@@ -20,21 +20,15 @@ import org.bukkit.scheduler.BukkitTask;
 
 import java.util.ArrayList;
 import java.util.Comparator;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Random;
-import java.util.UUID;
 import java.util.stream.Collectors;
-import java.util.Map;
-import java.util.Set;
 
 public class BountyManager implements Listener {
     private final LifeSteal plugin;
     private final ItemManager itemManager;
-    private final Map<UUID, Boolean> activeBounties;
-    private final Set<UUID> playersToLoseHearts;
-    private BukkitTask locationTask;
+    // Location broadcasts are an event on the schedule manager
+    private static final String LOCATION_EVENT = "bounty:location";
     private BukkitTask bountyTask;
     private boolean enabled;
     private boolean bountyActive = false;
@@ -45,8 +39,6 @@ public class BountyManager implements Listener {
     public BountyManager(LifeSteal plugin) {
         this.plugin = plugin;
         this.itemManager = plugin.getItemManager(); // Assumes you have a getter for ItemManager in LifeSteal
-        this.activeBounties = new HashMap<>();
-        this.playersToLoseHearts = new HashSet<>();
         this.enabled = plugin.getConfigManager().getConfig().getBoolean("bounty.enabled", true);
         plugin.getServer().getPluginManager().registerEvents(this, plugin);
     }
@@ -94,11 +86,14 @@ public class BountyManager implements Listener {
             return;
         }
 
+        // Keep the broadcast rhythm from before a restart
+        long resumeAt = plugin.getScheduleManager().getSavedDeadline(LOCATION_EVENT);
+
         // Clear any existing bounties
         clearBounties();
 
         // Start location broadcasting
-        startLocationBroadcasting();
+        startLocationBroadcasting(resumeAt);
 
         // Select a random player for bounty
         selectRandomBounty();
@@ -107,10 +102,7 @@ public class BountyManager implements Listener {
     public void stopBountySystem() {
         // Stop bounty system logic (unset flag, cancel tasks, etc)
         this.bountyActive = false;
-        if (locationTask != null) {
-            locationTask.cancel();
-            locationTask = null;
-        }
+        plugin.getScheduleManager().cancel(LOCATION_EVENT);
         if (bountyTask != null) {
             bountyTask.cancel();
             bountyTask = null;
@@ -121,7 +113,7 @@ public class BountyManager implements Listener {
     private void selectRandomBounty() {
         List<Player> eligiblePlayers = new ArrayList<>();
         for (Player player : Bukkit.getOnlinePlayers()) {
-            if (!activeBounties.containsKey(player.getUniqueId())) {
+            if (!sessions().get(player).hasBounty()) {
                 eligiblePlayers.add(player);
             }
         }
@@ -150,8 +142,7 @@ public class BountyManager implements Listener {
             target = eligiblePlayers.get(new Random().nextInt(eligiblePlayers.size()));
         }
 
-        activeBounties.put(target.getUniqueId(), isRareBounty);
-        playersToLoseHearts.add(target.getUniqueId());
+        sessions().get(target).setBounty(isRareBounty);
 
         // Broadcast bounty message
         String message = isRareBounty ? 
@@ -164,37 +155,48 @@ public class BountyManager implements Listener {
         }
     }
 
-    private void startLocationBroadcasting() {
-        if (locationTask != null) {
-            locationTask.cancel();
-        }
+    /**
+     * Schedules the next location broadcast at the given time, or one interval
+     * from now if that time is not in the future.
+     */
+    private void startLocationBroadcasting(long resumeAt) {
+        long now = System.currentTimeMillis();
+        long deadline = resumeAt > now ? resumeAt : now + getLocationBroadcastInterval();
+        plugin.getScheduleManager().schedule(LOCATION_EVENT, deadline, this::broadcastLocations);
+    }
+
+    private long getLocationBroadcastInterval() {
+        return plugin.getConfigManager().getConfig().getInt("bounty.location-broadcast-interval", 10) * 60000L; // Convert minutes to millis
+    }
 
-        int interval = plugin.getConfigManager().getConfig().getInt("bounty.location-broadcast-interval", 10) * 1200; // Convert minutes to ticks
-        locationTask = Bukkit.getScheduler().runTaskTimer(plugin, () -> {
-            for (UUID targetId : activeBounties.keySet()) {
-                Player target = Bukkit.getPlayer(targetId);
-                if (target != null && target.isOnline()) {
-                    Location loc = target.getLocation();
-                    String message = plugin.getConfigManager().getConfig().getString("bounty.messages.location");
-                    if (message != null) {
-                        message = message.replace("%player%", target.getName())
-                            .replace("%x%", String.valueOf(loc.getBlockX()))
-                            .replace("%y%", String.valueOf(loc.getBlockY()))
-                            .replace("%z%", String.valueOf(loc.getBlockZ()))
-                            .replace("%world%", loc.getWorld().getName());
-                        Bukkit.broadcastMessage(ColorUtils.colorize(message));
-                    }
+    private void broadcastLocations() {
+        for (PlayerSession session : sessions().getSessions()) {
+            if (!session.hasBounty()) {
+                continue;
+            }
+            Player target = Bukkit.getPlayer(session.getUniqueId());
+            if (target != null && target.isOnline()) {
+                Location loc = target.getLocation();
+                String message = plugin.getConfigManager().getConfig().getString("bounty.messages.location");
+                if (message != null) {
+                    message = message.replace("%player%", target.getName())
+                        .replace("%x%", String.valueOf(loc.getBlockX()))
+                        .replace("%y%", String.valueOf(loc.getBlockY()))
+                        .replace("%z%", String.valueOf(loc.getBlockZ()))
+                        .replace("%world%", loc.getWorld().getName());
+                    Bukkit.broadcastMessage(ColorUtils.colorize(message));
                 }
             }
-        }, interval, interval);
+        }
+        startLocationBroadcasting(0);
     }
 
     public void handleBountyKill(Player killer, Player victim) {
-        if (!activeBounties.containsKey(victim.getUniqueId())) return;
+        PlayerSession session = sessions().get(victim);
+        if (!session.hasBounty()) return;
 
-        boolean isRareBounty = activeBounties.get(victim.getUniqueId());
-        activeBounties.remove(victim.getUniqueId());
-        playersToLoseHearts.remove(victim.getUniqueId());
+        boolean isRareBounty = session.isRareBounty();
+        session.clearBounty();
 
         if (isRareBounty) {
             // Give Revival Heart for rare bounty
@@ -221,11 +223,11 @@ public class BountyManager implements Listener {
     }
 
     public void handleBountySurvival(Player player) {
-        if (!activeBounties.containsKey(player.getUniqueId())) return;
+        PlayerSession session = sessions().get(player);
+        if (!session.hasBounty()) return;
 
-        boolean isRareBounty = activeBounties.get(player.getUniqueId());
-        activeBounties.remove(player.getUniqueId());
-        playersToLoseHearts.remove(player.getUniqueId());
+        boolean isRareBounty = session.isRareBounty();
+        session.clearBounty();
 
         if (isRareBounty) {
             // Give Revival Heart for surviving rare bounty
@@ -250,10 +252,9 @@ public class BountyManager implements Listener {
     }
 
     public void handlePlayerQuit(Player player) {
-        if (playersToLoseHearts.contains(player.getUniqueId())) {
-            boolean isRareBounty = activeBounties.getOrDefault(player.getUniqueId(), false);
-            activeBounties.remove(player.getUniqueId());
-            playersToLoseHearts.remove(player.getUniqueId());
+        PlayerSession session = sessions().get(player);
+        if (session.hasBounty()) {
+            session.clearBounty();
 
             if (plugin.getConfigManager().getConfig().getBoolean("bounty.logout-penalty.enabled", true)) {
                 int heartsLost = plugin.getConfigManager().getConfig().getInt("bounty.logout-penalty.hearts-lost", 2);
@@ -270,12 +271,10 @@ public class BountyManager implements Listener {
     }
 
     public void clearBounties() {
-        activeBounties.clear();
-        playersToLoseHearts.clear();
-        if (locationTask != null) {
-            locationTask.cancel();
-            locationTask = null;
+        for (PlayerSession session : sessions().getSessions()) {
+            session.clearBounty();
         }
+        plugin.getScheduleManager().cancel(LOCATION_EVENT);
     }
 
     public void setEnabled(boolean enabled) {
@@ -290,10 +289,14 @@ public class BountyManager implements Listener {
     }
 
     public boolean hasBounty(Player player) {
-        return activeBounties.containsKey(player.getUniqueId());
+        return sessions().get(player).hasBounty();
     }
 
     public boolean isRareBounty(Player player) {
-        return activeBounties.getOrDefault(player.getUniqueId(), false);
+        return sessions().get(player).isRareBounty();
+    }
+
+    private SessionManager sessions() {
+        return plugin.getSessionManager();
     }
 }
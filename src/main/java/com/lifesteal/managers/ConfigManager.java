@@ -55,6 +55,14 @@ public class ConfigManager {
         return config;
     }
 
+    public boolean isHeartCacheEnabled() {
+        return config.getBoolean("storage.heart-cache.enabled", true);
+    }
+
+    public int getHeartCacheFlushInterval() {
+        return config.getInt("storage.heart-cache.flush-interval", 5);
+    }
+
     public int getStartingHearts() {
         return config.getInt("starting-hearts", 10);
     }
@@ -99,6 +107,25 @@ public class ConfigManager {
         return itemsConfig;
     }
     
+    public boolean isAllyFriendlyFireEnabled() {
+        return config.getBoolean("allies.friendly-fire", false);
+    }
+
+    /**
+     * Seconds before an unanswered ally request expires.
+     */
+    public int getAllyRequestTimeout() {
+        return Math.max(1, config.getInt("allies.request-timeout", 60));
+    }
+
+    public boolean isAlliancesEnabled() {
+        return config.getBoolean("alliances.enabled", false);
+    }
+
+    public int getMaxAllianceSize() {
+        return config.getInt("alliances.max-size", 5);
+    }
+
     public boolean isBossBarEnabled() {
         return getConfig().getBoolean("boss-bar.enabled", true);
     }
@@ -117,8 +144,17 @@ public class ConfigManager {
         return config.getStringList("world-border.worlds");
     }
     
-    public double getInitialBorderSize() {
-        return config.getDouble("world-border.initial-size", 5000);
+    /**
+     * Path of a world border setting, taken from world-border.per-world.&lt;world&gt;
+     * when the world overrides it and from world-border otherwise.
+     */
+    private String borderPath(String world, String key) {
+        String override = "world-border.per-world." + world + "." + key;
+        return config.isSet(override) ? override : "world-border." + key;
+    }
+    
+    public double getInitialBorderSize(String world) {
+        return config.getDouble(borderPath(world, "initial-size"), 5000);
     }
     
     public boolean useWorldSpawnAsCenter() {
@@ -137,16 +173,23 @@ public class ConfigManager {
         return config.getBoolean("world-border.shrink.enabled", false);
     }
     
-    public int getWorldBorderShrinkInterval() {
-        return config.getInt("world-border.shrink.interval", 30);
+    public int getWorldBorderShrinkInterval(String world) {
+        return config.getInt(borderPath(world, "shrink.interval"), 30);
+    }
+    
+    public double getWorldBorderShrinkAmount(String world) {
+        return config.getDouble(borderPath(world, "shrink.amount"), 100);
     }
     
-    public double getWorldBorderShrinkAmount() {
-        return config.getDouble("world-border.shrink.amount", 100);
+    public double getWorldBorderMinSize(String world) {
+        return config.getDouble(borderPath(world, "shrink.min-size"), 500);
     }
     
-    public double getWorldBorderMinSize() {
-        return config.getDouble("world-border.shrink.min-size", 500);
+    /**
+     * Seconds each shrink takes to move the border, 0 to move it at once.
+     */
+    public int getWorldBorderShrinkAnimationTime(String world) {
+        return parseTimeString(config.getString(borderPath(world, "shrink.animation-time"), "0s"));
     }
     
     public int getWorldBorderWarningTime() {
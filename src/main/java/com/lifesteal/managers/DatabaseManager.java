@@ -1,332 +1,357 @@
 package com.lifesteal.managers;
 
 import com.lifesteal.LifeSteal;
-import org.bukkit.entity.Player;
+import com.lifesteal.storage.DatabaseExecutor;
+import com.lifesteal.storage.HeartTransfer;
+import com.lifesteal.storage.JdbcPlayerStore;
+import com.lifesteal.storage.MemoryPlayerStore;
+import com.lifesteal.storage.MySqlPlayerStore;
+import com.lifesteal.storage.PlayerStore;
+import com.lifesteal.storage.SqlitePlayerStore;
+import com.lifesteal.storage.WorldBorderState;
+import org.bukkit.configuration.file.FileConfiguration;
 
-import java.io.File;
-import java.sql.*;
+import java.sql.SQLException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.logging.Level;
 
+/**
+ * Entry point for persistence. Picks the {@link PlayerStore} configured under
+ * storage.type, logs its failures and offers asynchronous variants of every call.
+ */
 public class DatabaseManager {
     private final LifeSteal plugin;
-    private Connection connection;
     private final String storageType;
-    private final String host;
-    private final int port;
-    private final String database;
-    private final String username;
-    private final String password;
-    private final String sqliteFile;
+    private final PlayerStore store;
+    private final DatabaseExecutor executor;
 
     public DatabaseManager(LifeSteal plugin) {
         this.plugin = plugin;
         this.storageType = plugin.getConfig().getString("storage.type", "sqlite").toLowerCase();
-        this.host = plugin.getConfig().getString("storage.mysql.host", "localhost");
-        this.port = plugin.getConfig().getInt("storage.mysql.port", 3306);
-        this.database = plugin.getConfig().getString("storage.mysql.database", "lifesteal");
-        this.username = plugin.getConfig().getString("storage.mysql.user", "root");
-        this.password = plugin.getConfig().getString("storage.mysql.password", "password");
-        this.sqliteFile = plugin.getConfig().getString("storage.sqlite.file", "plugins/Lifesteal/storage/lifesteal.db");
+        this.store = createStore(plugin.getConfig());
+        this.executor = new DatabaseExecutor(plugin);
     }
 
-    public void initialize() {
-
-        if (storageType.equals("mysql")) {
-            initializeMySql();
-        } else {
-            initializeSqlite();
+    private PlayerStore createStore(FileConfiguration config) {
+        boolean compactKeys = config.getBoolean("storage.compact-keys", false);
+        switch (storageType) {
+            case "mysql":
+                return new MySqlPlayerStore(
+                    plugin.getLogger(),
+                    config.getString("storage.mysql.host", "localhost"),
+                    config.getInt("storage.mysql.port", 3306),
+                    config.getString("storage.mysql.database", "lifesteal"),
+                    config.getString("storage.mysql.user", "root"),
+                    config.getString("storage.mysql.password", "password"),
+                    config.getInt("storage.mysql.pool.size", 4),
+                    config.getLong("storage.mysql.pool.connection-timeout", 5000L),
+                    compactKeys
+                );
+            case "memory":
+                plugin.getLogger().warning("Using in-memory storage, nothing will be saved across restarts!");
+                return new MemoryPlayerStore();
+            default:
+                return new SqlitePlayerStore(
+                    plugin.getLogger(),
+                    config.getString("storage.sqlite.file", "plugins/Lifesteal/storage/lifesteal.db"),
+                    config.getBoolean("storage.sqlite.tuned", true),
+                    config.getString("storage.sqlite.synchronous", "NORMAL"),
+                    config.getInt("storage.sqlite.cache-size", 8192),
+                    config.getLong("storage.sqlite.connection-timeout", 5000L),
+                    compactKeys
+                );
         }
-        createTables();
     }
 
-    private void initializeMySql() {
+    public void initialize() {
         try {
-            Class.forName("com.mysql.cj.jdbc.Driver");
-            connection = DriverManager.getConnection(
-                "jdbc:mysql://" + host + ":" + port + "/" + database,
-                username,
-                password
-            );
-            plugin.getLogger().info("Successfully connected to MySQL database!");
-        } catch (ClassNotFoundException | SQLException e) {
-            plugin.getLogger().severe("Failed to connect to MySQL database: " + e.getMessage());
+            store.open();
+        } catch (SQLException e) {
+            plugin.getLogger().severe("Failed to open " + store.getName() + " storage: " + e.getMessage());
             e.printStackTrace();
         }
     }
 
-    private void initializeSqlite() {
+    public void setHearts(UUID uuid, int hearts) {
         try {
-            Class.forName("org.sqlite.JDBC");
-            File dataFolder = new File(sqliteFile).getParentFile();
-            if (!dataFolder.exists()) {
-                dataFolder.mkdirs();
-            }
-            connection = DriverManager.getConnection("jdbc:sqlite:" + sqliteFile);
-            plugin.getLogger().info("Successfully connected to SQLite database!");
-        } catch (ClassNotFoundException | SQLException e) {
-            plugin.getLogger().severe("Failed to connect to SQLite database: " + e.getMessage());
-            e.printStackTrace();
+            store.setHearts(uuid, hearts);
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.SEVERE, "Failed to set hearts for " + uuid, e);
         }
     }
 
-    private void createTables() {
+    public boolean setHearts(Map<UUID, Integer> hearts) {
+        if (hearts.isEmpty()) {
+            return true;
+        }
         try {
-            // Players table
-            try (Statement stmt = connection.createStatement()) {
-                stmt.execute("""
-                    CREATE TABLE IF NOT EXISTS players (
-                        uuid VARCHAR(36) PRIMARY KEY,
-                        hearts INT NOT NULL DEFAULT 10
-                    )
-                """);
-            }
-
-            // Allies table
-            try (Statement stmt = connection.createStatement()) {
-                stmt.execute("""
-                    CREATE TABLE IF NOT EXISTS allies (
-                        player_uuid VARCHAR(36),
-                        ally_uuid VARCHAR(36),
-                        PRIMARY KEY (player_uuid, ally_uuid),
-                        FOREIGN KEY (player_uuid) REFERENCES players(uuid),
-                        FOREIGN KEY (ally_uuid) REFERENCES players(uuid)
-                    )
-                """);
-            }
-
-            // Ally requests table
-            try (Statement stmt = connection.createStatement()) {
-                stmt.execute("""
-                    CREATE TABLE IF NOT EXISTS ally_requests (
-                        sender_uuid VARCHAR(36),
-                        receiver_uuid VARCHAR(36),
-                        timestamp BIGINT NOT NULL,
-                        PRIMARY KEY (sender_uuid, receiver_uuid),
-                        FOREIGN KEY (sender_uuid) REFERENCES players(uuid),
-                        FOREIGN KEY (receiver_uuid) REFERENCES players(uuid)
-                    )
-                """);
-            }
-
-            // World Border table
-            try (Statement stmt = connection.createStatement()) {
-                stmt.execute("""
-                    CREATE TABLE IF NOT EXISTS world_border (
-                        id INT PRIMARY KEY DEFAULT 1,
-                        current_size DOUBLE NOT NULL,
-                        initial_size DOUBLE NOT NULL,
-                        last_shrink_time BIGINT NOT NULL,
-                        next_shrink_time BIGINT NOT NULL,
-                        CHECK (id = 1)
-                    )
-                """);
-            }
-
-            // Create cycle_timer table after connection is ready
-            new com.lifesteal.managers.CycleTimerDatabase(plugin).createTable();
-            plugin.getLogger().info("Successfully created database tables!");
+            store.setHearts(hearts);
+            return true;
         } catch (SQLException e) {
-            plugin.getLogger().severe("Failed to create database tables: " + e.getMessage());
-            e.printStackTrace();
+            plugin.getLogger().log(Level.SEVERE, "Failed to save hearts for " + hearts.size() + " player(s)", e);
+            return false;
         }
     }
 
-    public void setHearts(UUID uuid, int hearts) {
-        String storageType = plugin.getConfig().getString("storage.type", "sqlite").toLowerCase();
-        String sql;
-        if (storageType.equals("mysql")) {
-            sql = "INSERT INTO players (uuid, hearts) VALUES (?, ?) ON DUPLICATE KEY UPDATE hearts = ?";
-        } else {
-            sql = "INSERT OR REPLACE INTO players (uuid, hearts) VALUES (?, ?)";
-        }
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-            stmt.setString(1, uuid.toString());
-            stmt.setInt(2, hearts);
-            if (storageType.equals("mysql")) {
-                stmt.setInt(3, hearts);
-            }
-            stmt.executeUpdate();
+    public int getHearts(UUID uuid) {
+        int startingHearts = plugin.getConfigManager().getStartingHearts();
+        try {
+            return store.getHearts(uuid, startingHearts);
         } catch (SQLException e) {
-            plugin.getLogger().log(Level.SEVERE, "Failed to set hearts for " + uuid, e);
+            plugin.getLogger().log(Level.SEVERE, "Failed to get hearts for " + uuid, e);
+            return startingHearts;
         }
     }
 
-    public int getHearts(UUID uuid) {
-        try (PreparedStatement stmt = connection.prepareStatement(
-                "SELECT hearts FROM players WHERE uuid = ?")) {
-            stmt.setString(1, uuid.toString());
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                return rs.getInt("hearts");
-            }
+    /**
+     * Moves hearts from the victim to the killer atomically.
+     * Returns null if the transfer could not be stored.
+     */
+    public HeartTransfer transferHearts(UUID victim, UUID killer, int amount, int minHearts, int maxHearts) {
+        try {
+            return store.transferHearts(victim, killer, amount, plugin.getConfigManager().getStartingHearts(), minHearts, maxHearts);
         } catch (SQLException e) {
-            plugin.getLogger().log(Level.SEVERE, "Failed to get hearts for " + uuid, e);
+            plugin.getLogger().log(Level.SEVERE, "Failed to transfer hearts from " + victim + " to " + killer, e);
+            return null;
         }
-        return plugin.getConfigManager().getStartingHearts();
     }
 
     public void addAlly(UUID player, UUID ally) {
-        try (PreparedStatement stmt = connection.prepareStatement(
-                "INSERT INTO allies (player_uuid, ally_uuid) VALUES (?, ?)")) {
-            // Add both directions for mutual alliance
-            stmt.setString(1, player.toString());
-            stmt.setString(2, ally.toString());
-            stmt.executeUpdate();
-            
-            stmt.setString(1, ally.toString());
-            stmt.setString(2, player.toString());
-            stmt.executeUpdate();
+        try {
+            store.addAlly(player, ally);
         } catch (SQLException e) {
             plugin.getLogger().log(Level.SEVERE, "Failed to add ally relationship", e);
         }
     }
 
     public void removeAlly(UUID player, UUID ally) {
-        try (PreparedStatement stmt = connection.prepareStatement(
-                "DELETE FROM allies WHERE (player_uuid = ? AND ally_uuid = ?) OR (player_uuid = ? AND ally_uuid = ?)")) {
-            stmt.setString(1, player.toString());
-            stmt.setString(2, ally.toString());
-            stmt.setString(3, ally.toString());
-            stmt.setString(4, player.toString());
-            stmt.executeUpdate();
+        try {
+            store.removeAlly(player, ally);
         } catch (SQLException e) {
             plugin.getLogger().log(Level.SEVERE, "Failed to remove ally relationship", e);
         }
     }
 
     public List<UUID> getAllies(UUID player) {
-        List<UUID> allies = new ArrayList<>();
-        try (PreparedStatement stmt = connection.prepareStatement(
-                "SELECT ally_uuid FROM allies WHERE player_uuid = ?")) {
-            stmt.setString(1, player.toString());
-            ResultSet rs = stmt.executeQuery();
-            while (rs.next()) {
-                allies.add(UUID.fromString(rs.getString("ally_uuid")));
-            }
+        try {
+            return store.getAllies(player);
         } catch (SQLException e) {
             plugin.getLogger().log(Level.SEVERE, "Failed to get allies for " + player, e);
+            return new ArrayList<>();
         }
-        return allies;
     }
 
-    public void addAllyRequest(UUID sender, UUID receiver) {
-        try (PreparedStatement stmt = connection.prepareStatement(
-                "INSERT INTO ally_requests (sender_uuid, receiver_uuid, timestamp) VALUES (?, ?, ?)")) {
-            stmt.setString(1, sender.toString());
-            stmt.setString(2, receiver.toString());
-            stmt.setLong(3, System.currentTimeMillis());
-            stmt.executeUpdate();
+    public Set<UUID> getAlliesAmong(UUID player, Collection<UUID> candidates) {
+        try {
+            return store.getAlliesAmong(player, candidates);
         } catch (SQLException e) {
-            plugin.getLogger().log(Level.SEVERE, "Failed to add ally request", e);
+            plugin.getLogger().log(Level.SEVERE, "Failed to get allies for " + player, e);
+            return new HashSet<>();
         }
     }
 
-    public void removeAllyRequest(UUID sender, UUID receiver) {
-        try (PreparedStatement stmt = connection.prepareStatement(
-                "DELETE FROM ally_requests WHERE sender_uuid = ? AND receiver_uuid = ?")) {
-            stmt.setString(1, sender.toString());
-            stmt.setString(2, receiver.toString());
-            stmt.executeUpdate();
+    public Map<UUID, List<UUID>> getAllAllies() {
+        try {
+            return store.getAllAllies();
         } catch (SQLException e) {
-            plugin.getLogger().log(Level.SEVERE, "Failed to remove ally request", e);
+            plugin.getLogger().log(Level.SEVERE, "Failed to load ally relationships", e);
+            return new HashMap<>();
         }
     }
 
-    public List<UUID> getPendingAllyRequests(UUID receiver) {
-        List<UUID> requests = new ArrayList<>();
-        try (PreparedStatement stmt = connection.prepareStatement(
-                "SELECT sender_uuid FROM ally_requests WHERE receiver_uuid = ?")) {
-            stmt.setString(1, receiver.toString());
-            ResultSet rs = stmt.executeQuery();
-            while (rs.next()) {
-                requests.add(UUID.fromString(rs.getString("sender_uuid")));
-            }
+    public void savePlayerName(UUID uuid, String name, long lastSeen) {
+        try {
+            store.savePlayerName(uuid, name, lastSeen);
         } catch (SQLException e) {
-            plugin.getLogger().log(Level.SEVERE, "Failed to get pending ally requests for " + receiver, e);
+            plugin.getLogger().log(Level.SEVERE, "Failed to save name of " + uuid, e);
         }
-        return requests;
     }
 
-    public void cleanupTimedOutRequests(long timeout) {
-        try (PreparedStatement stmt = connection.prepareStatement(
-                "DELETE FROM ally_requests WHERE timestamp < ?")) {
-            stmt.setLong(1, System.currentTimeMillis() - timeout);
-            stmt.executeUpdate();
+    public String getPlayerName(UUID uuid) {
+        try {
+            return store.getPlayerName(uuid);
         } catch (SQLException e) {
-            plugin.getLogger().log(Level.SEVERE, "Failed to cleanup timed out requests", e);
+            plugin.getLogger().log(Level.SEVERE, "Failed to get name of " + uuid, e);
+            return null;
         }
     }
 
-    public void saveWorldBorderData(double currentSize, double initialSize, long lastShrinkTime, long nextShrinkTime) {
-        String storageType = plugin.getConfig().getString("storage.type", "sqlite").toLowerCase();
-        String sql;
-        if (storageType.equals("mysql")) {
-            sql = "INSERT INTO world_border (id, current_size, initial_size, last_shrink_time, next_shrink_time) " +
-                  "VALUES (1, ?, ?, ?, ?) " +
-                  "ON DUPLICATE KEY UPDATE current_size = ?, initial_size = ?, last_shrink_time = ?, next_shrink_time = ?";
-        } else {
-            sql = "INSERT OR REPLACE INTO world_border (id, current_size, initial_size, last_shrink_time, next_shrink_time) VALUES (1, ?, ?, ?, ?)";
+    public UUID getPlayerIdByName(String name) {
+        try {
+            return store.getPlayerIdByName(name);
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.SEVERE, "Failed to look up player " + name, e);
+            return null;
         }
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-            stmt.setDouble(1, currentSize);
-            stmt.setDouble(2, initialSize);
-            stmt.setLong(3, lastShrinkTime);
-            stmt.setLong(4, nextShrinkTime);
-            if (storageType.equals("mysql")) {
-                stmt.setDouble(5, currentSize);
-                stmt.setDouble(6, initialSize);
-                stmt.setLong(7, lastShrinkTime);
-                stmt.setLong(8, nextShrinkTime);
-            }
-            stmt.executeUpdate();
+    }
+
+    public void saveWorldBorders(Collection<WorldBorderState> borders, Collection<String> removedWorlds) {
+        try {
+            store.saveWorldBorders(borders, removedWorlds);
         } catch (SQLException e) {
             plugin.getLogger().log(Level.SEVERE, "Failed to save world border data", e);
         }
     }
 
-    public Map<String, Object> getWorldBorderData() {
-        Map<String, Object> data = new HashMap<>();
-        try (PreparedStatement stmt = connection.prepareStatement(
-                "SELECT current_size, initial_size, last_shrink_time, next_shrink_time FROM world_border WHERE id = 1")) {
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                data.put("current_size", rs.getDouble("current_size"));
-                data.put("initial_size", rs.getDouble("initial_size"));
-                data.put("last_shrink_time", rs.getLong("last_shrink_time"));
-                data.put("next_shrink_time", rs.getLong("next_shrink_time"));
-            } else {
-                // Initialize with default values
-                double initialSize = plugin.getConfigManager().getInitialBorderSize();
-                data.put("current_size", initialSize);
-                data.put("initial_size", initialSize);
-                data.put("last_shrink_time", 0L);
-                data.put("next_shrink_time", 0L);
-                saveWorldBorderData(initialSize, initialSize, 0L, 0L);
-            }
+    /**
+     * Every saved border by world name. Worlds without a row are set up from the config by the caller.
+     */
+    public Map<String, WorldBorderState> getWorldBorders() {
+        try {
+            return store.loadWorldBorders();
         } catch (SQLException e) {
             plugin.getLogger().log(Level.SEVERE, "Failed to get world border data", e);
-            // Return default values on error
-            double initialSize = plugin.getConfigManager().getInitialBorderSize();
-            data.put("current_size", initialSize);
-            data.put("initial_size", initialSize);
-            data.put("last_shrink_time", 0L);
-            data.put("next_shrink_time", 0L);
+            return new HashMap<>();
+        }
+    }
+
+    public void saveCycleTimerData(String mode, long nextSwitch) {
+        try {
+            store.saveCycleTimer(mode, nextSwitch);
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.SEVERE, "Failed to save cycle timer data", e);
         }
-        return data;
     }
 
-    public Connection getConnection() {
-        return connection;
+    public Map<String, Object> getCycleTimerData() {
+        try {
+            return store.loadCycleTimer();
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.SEVERE, "Failed to get cycle timer data", e);
+            return new HashMap<>();
+        }
     }
 
-    public void close() {
-        if (connection != null) {
+    public void saveScheduledEvents(Map<String, Long> deadlines, Collection<String> removed) {
+        try {
+            store.saveScheduledEvents(deadlines, removed);
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.SEVERE, "Failed to save scheduled events", e);
+        }
+    }
+
+    public Map<String, Long> getScheduledEvents() {
+        try {
+            return store.loadScheduledEvents();
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.SEVERE, "Failed to get scheduled events", e);
+            return new HashMap<>();
+        }
+    }
+
+    // Asynchronous variants. These run on the database thread in submission order;
+    // use getExecutor().mainThread() to continue on the server thread.
+
+    public CompletableFuture<Void> setHeartsAsync(UUID uuid, int hearts) {
+        return executor.run(() -> setHearts(uuid, hearts));
+    }
+
+    public CompletableFuture<Boolean> setHeartsAsync(Map<UUID, Integer> hearts) {
+        return executor.supply(() -> setHearts(hearts));
+    }
+
+    public CompletableFuture<Integer> getHeartsAsync(UUID uuid) {
+        return executor.supply(() -> getHearts(uuid));
+    }
+
+    public CompletableFuture<HeartTransfer> transferHeartsAsync(UUID victim, UUID killer, int amount, int minHearts, int maxHearts) {
+        return executor.supply(() -> transferHearts(victim, killer, amount, minHearts, maxHearts));
+    }
+
+    public CompletableFuture<Void> addAllyAsync(UUID player, UUID ally) {
+        return executor.run(() -> addAlly(player, ally));
+    }
+
+    public CompletableFuture<Void> removeAllyAsync(UUID player, UUID ally) {
+        return executor.run(() -> removeAlly(player, ally));
+    }
+
+    public CompletableFuture<List<UUID>> getAlliesAsync(UUID player) {
+        return executor.supply(() -> getAllies(player));
+    }
+
+    public CompletableFuture<Set<UUID>> getAlliesAmongAsync(UUID player, Collection<UUID> candidates) {
+        List<UUID> copy = new ArrayList<>(candidates);
+        return executor.supply(() -> getAlliesAmong(player, copy));
+    }
+
+    public CompletableFuture<Void> savePlayerNameAsync(UUID uuid, String name, long lastSeen) {
+        return executor.run(() -> savePlayerName(uuid, name, lastSeen));
+    }
+
+    public CompletableFuture<String> getPlayerNameAsync(UUID uuid) {
+        return executor.supply(() -> getPlayerName(uuid));
+    }
+
+    public CompletableFuture<UUID> getPlayerIdByNameAsync(String name) {
+        return executor.supply(() -> getPlayerIdByName(name));
+    }
+
+    public CompletableFuture<Void> saveWorldBordersAsync(Collection<WorldBorderState> borders, Collection<String> removedWorlds) {
+        List<WorldBorderState> copy = new ArrayList<>(borders);
+        List<String> removedCopy = new ArrayList<>(removedWorlds);
+        return executor.run(() -> saveWorldBorders(copy, removedCopy));
+    }
+
+    public CompletableFuture<Map<String, WorldBorderState>> getWorldBordersAsync() {
+        return executor.supply(this::getWorldBorders);
+    }
+
+    public CompletableFuture<Void> saveCycleTimerDataAsync(String mode, long nextSwitch) {
+        return executor.run(() -> saveCycleTimerData(mode, nextSwitch));
+    }
+
+    public CompletableFuture<Map<String, Object>> getCycleTimerDataAsync() {
+        return executor.supply(this::getCycleTimerData);
+    }
+
+    public CompletableFuture<Void> saveScheduledEventsAsync(Map<String, Long> deadlines, Collection<String> removed) {
+        Map<String, Long> deadlinesCopy = new HashMap<>(deadlines);
+        List<String> removedCopy = new ArrayList<>(removed);
+        return executor.run(() -> saveScheduledEvents(deadlinesCopy, removedCopy));
+    }
+
+    /**
+     * Query plans for every SQL statement, by statement name. Empty for non-SQL storage.
+     */
+    public CompletableFuture<Map<String, List<String>>> explainQueriesAsync() {
+        return executor.supply(() -> {
+            JdbcPlayerStore jdbc = getJdbcStore();
+            if (jdbc == null) {
+                return Collections.<String, List<String>>emptyMap();
+            }
             try {
-                connection.close();
+                return jdbc.explainQueries();
             } catch (SQLException e) {
-                plugin.getLogger().severe("Error closing database connection: " + e.getMessage());
+                plugin.getLogger().log(Level.SEVERE, "Failed to explain queries", e);
+                return Collections.<String, List<String>>emptyMap();
             }
-        }
+        });
+    }
+
+    public DatabaseExecutor getExecutor() {
+        return executor;
+    }
+
+    public PlayerStore getStore() {
+        return store;
+    }
+
+    /**
+     * The SQL store behind this manager, or null if storage is not SQL based.
+     */
+    public JdbcPlayerStore getJdbcStore() {
+        return store instanceof JdbcPlayerStore ? (JdbcPlayerStore) store : null;
+    }
+
+    public String getStorageType() {
+        return store.getName();
+    }
+
+    public void close() {
+        // Let queued writes finish before the store goes away
+        executor.shutdown();
+        store.close();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,140 @@
+package com.lifesteal.managers;
+
+import com.lifesteal.LifeSteal;
+import com.lifesteal.storage.HeartTransfer;
+import org.bukkit.Bukkit;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+
+/**
+ * Write-behind cache in front of the players table.
+ * Reads are served from memory, writes only mark the entry dirty and are
+ * flushed in batches by a background task. Repeated updates to the same
+ * player between two flushes collapse into a single row write.
+ */
+public class HeartCache {
+    private final LifeSteal plugin;
+    private final Map<UUID, Integer> hearts = new ConcurrentHashMap<>();
+    private final Map<UUID, Integer> dirty = new ConcurrentHashMap<>();
+    private final Object flushLock = new Object();
+    private BukkitTask flushTask;
+
+    public HeartCache(LifeSteal plugin) {
+        this.plugin = plugin;
+    }
+
+    public void start() {
+        if (flushTask != null) {
+            flushTask.cancel();
+        }
+        long interval = Math.max(1, plugin.getConfigManager().getHeartCacheFlushInterval()) * 20L;
+        flushTask = Bukkit.getScheduler().runTaskTimer(plugin,
+                () -> plugin.getDatabaseManager().getExecutor().execute(this::flush), interval, interval);
+    }
+
+    /**
+     * Loads a player's hearts into memory. Called when the player joins.
+     */
+    public int load(UUID uuid) {
+        return get(uuid);
+    }
+
+    public int get(UUID uuid) {
+        Integer cached = hearts.get(uuid);
+        if (cached != null) {
+            return cached;
+        }
+        // A value that is still waiting to be written is newer than the row
+        Integer pending = dirty.get(uuid);
+        int value = pending != null ? pending : plugin.getDatabaseManager().getHearts(uuid);
+        Integer previous = hearts.putIfAbsent(uuid, value);
+        return previous != null ? previous : value;
+    }
+
+    public synchronized void set(UUID uuid, int value) {
+        hearts.put(uuid, value);
+        dirty.put(uuid, value);
+    }
+
+    /**
+     * Moves hearts from the victim to the killer as one step. Both new values
+     * are marked dirty together, so a flush never persists only one side.
+     */
+    public synchronized HeartTransfer transfer(UUID victim, UUID killer, int amount, int minHearts, int maxHearts) {
+        HeartTransfer transfer = HeartTransfer.between(victim, get(victim), killer, get(killer), amount, minHearts, maxHearts);
+        Map<UUID, Integer> values = new HashMap<>();
+        values.put(victim, transfer.victimHearts);
+        values.put(killer, transfer.killerHearts);
+        hearts.putAll(values);
+        dirty.putAll(values);
+        return transfer;
+    }
+
+    public boolean isLoaded(UUID uuid) {
+        return hearts.containsKey(uuid);
+    }
+
+    /**
+     * Drops a player from memory and writes their pending value in the background.
+     * The dirty value stays visible to {@link #get(UUID)} until it has been written.
+     * If the write fails it is logged for the player and stays dirty, to be retried
+     * by the periodic flush and by {@link #shutdown()}.
+     */
+    public void unload(UUID uuid) {
+        hearts.remove(uuid);
+        if (dirty.containsKey(uuid)) {
+            plugin.getDatabaseManager().getExecutor().run(this::flush).whenComplete((ignored, error) -> {
+                if (error != null || dirty.containsKey(uuid)) {
+                    plugin.getLogger().log(Level.WARNING, "Could not save hearts of " + uuid
+                            + " on quit, retrying with the next flush", error);
+                }
+            });
+        }
+    }
+
+    /**
+     * Writes every dirty entry in one batch. Entries that changed again while
+     * the batch was being written stay dirty for the next flush.
+     */
+    public void flush() {
+        synchronized (flushLock) {
+            if (dirty.isEmpty()) {
+                return;
+            }
+            Map<UUID, Integer> batch;
+            synchronized (this) {
+                batch = new HashMap<>(dirty);
+            }
+            if (!plugin.getDatabaseManager().setHearts(batch)) {
+                return; // Keep everything dirty and retry on the next flush
+            }
+            for (Map.Entry<UUID, Integer> entry : batch.entrySet()) {
+                dirty.remove(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Stops the background writer and flushes synchronously. Called from onDisable.
+     */
+    public void shutdown() {
+        if (flushTask != null) {
+            flushTask.cancel();
+            flushTask = null;
+        }
+        flush();
+        if (!dirty.isEmpty()) {
+            plugin.getLogger().severe("Could not save hearts for " + dirty.size() + " player(s) on shutdown!");
+        }
+        hearts.clear();
+    }
+
+    public int getDirtyCount() {
+        return dirty.size();
+    }
+}
@@ -1,30 +1,117 @@
 package com.lifesteal.managers;
 
 import com.lifesteal.LifeSteal;
+import com.lifesteal.storage.HeartTransfer;
 import com.lifesteal.utils.ColorUtils;
 import org.bukkit.Bukkit;
 import org.bukkit.GameMode;
 import org.bukkit.attribute.Attribute;
 import org.bukkit.entity.Player;
 
+import java.util.UUID;
+
 public class HeartManager {
     private final LifeSteal plugin;
+    private final HeartCache heartCache;
 
     public HeartManager(LifeSteal plugin) {
         this.plugin = plugin;
+        if (plugin.getConfigManager().isHeartCacheEnabled()) {
+            this.heartCache = new HeartCache(plugin);
+            this.heartCache.start();
+        } else {
+            this.heartCache = null;
+        }
     }
 
     public void setHearts(Player player, int hearts) {
+        applyHearts(player, hearts);
+        if (heartCache != null) {
+            heartCache.set(player.getUniqueId(), hearts);
+        } else {
+            plugin.getDatabaseManager().setHearts(player.getUniqueId(), hearts);
+        }
+    }
+
+    private void applyHearts(Player player, int hearts) {
         int maxHealth = hearts * 2;
         player.getAttribute(Attribute.GENERIC_MAX_HEALTH).setBaseValue(maxHealth);
         player.setHealth(maxHealth);
-        plugin.getDatabaseManager().setHearts(player.getUniqueId(), hearts);
+    }
+
+    /**
+     * Moves hearts from the victim to the killer in one atomic step, through the
+     * heart cache when enabled or a single database transaction otherwise.
+     * Returns null if the transfer could not be stored.
+     */
+    public HeartTransfer transferHearts(Player victim, Player killer, int amount) {
+        int minHearts = plugin.getConfigManager().getMinHearts();
+        int maxHearts = plugin.getConfigManager().getMaxHearts();
+        if (heartCache != null) {
+            return heartCache.transfer(victim.getUniqueId(), killer.getUniqueId(), amount, minHearts, maxHearts);
+        }
+        return plugin.getDatabaseManager().transferHearts(victim.getUniqueId(), killer.getUniqueId(), amount, minHearts, maxHearts);
     }
 
     public int getHearts(Player player) {
+        if (heartCache != null) {
+            return heartCache.get(player.getUniqueId());
+        }
         return plugin.getDatabaseManager().getHearts(player.getUniqueId());
     }
 
+    /**
+     * Gives a first-time player the starting hearts. The row is written on the
+     * database thread right away, even with the cache on: ally rows reference it,
+     * and an ally insert queued before the next flush would otherwise fail.
+     * Joining never waits for the database.
+     */
+    public void setupNewPlayer(Player player) {
+        int startingHearts = plugin.getConfigManager().getStartingHearts();
+        applyHearts(player, startingHearts);
+        if (heartCache != null) {
+            heartCache.set(player.getUniqueId(), startingHearts);
+        }
+        plugin.getDatabaseManager().setHeartsAsync(player.getUniqueId(), startingHearts);
+    }
+
+    /**
+     * Reads a player's hearts ahead of their join, into the cache when it is enabled.
+     * Safe to call from the login thread.
+     */
+    public int preload(UUID uuid) {
+        if (heartCache != null) {
+            return heartCache.load(uuid);
+        }
+        return plugin.getDatabaseManager().getHearts(uuid);
+    }
+
+    public void loadPlayer(Player player) {
+        if (heartCache != null) {
+            heartCache.load(player.getUniqueId());
+        }
+    }
+
+    public void unloadPlayer(Player player) {
+        unloadPlayer(player.getUniqueId());
+    }
+
+    public void unloadPlayer(UUID uuid) {
+        if (heartCache != null) {
+            heartCache.unload(uuid);
+        }
+    }
+
+    public void shutdown() {
+        if (heartCache != null) {
+            heartCache.shutdown();
+        }
+    }
+
+    public HeartCache getHeartCache() {
+        return heartCache;
+    }
+
     public void addHearts(Player player, int amount) {
         int currentHearts = getHearts(player);
         int maxHearts = plugin.getConfigManager().getMaxHearts();
@@ -35,7 +122,10 @@ public class HeartManager {
         }
         
         setHearts(player, newHearts);
-        
+        playHeartGainSound(player);
+    }
+
+    private void playHeartGainSound(Player player) {
         // Play positive sound for heart gain
         try {
             String soundName = plugin.getConfigManager().getConfig().getString("sounds.heart-gain", "ENTITY_PLAYER_LEVELUP");
@@ -54,6 +144,10 @@ public class HeartManager {
         int minHearts = plugin.getConfigManager().getMinHearts();
         int newHearts = Math.max(currentHearts - amount, minHearts);
         setHearts(player, newHearts);
+        playHeartLossEffects(player, newHearts);
+    }
+
+    private void playHeartLossEffects(Player player, int newHearts) {
         player.playSound(player.getLocation(), org.bukkit.Sound.ENTITY_PLAYER_HURT, 1.0f, 1.0f);
 
         if (newHearts <= 0) {
@@ -98,6 +192,22 @@ public class HeartManager {
         player.playSound(player.getLocation(), org.bukkit.Sound.ITEM_TOTEM_USE, 1.0f, 1.0f);
     }
 
+    /**
+     * Revives a player who is not online: their stored hearts go back to the
+     * starting hearts and the elimination ban is lifted, so they join alive.
+     */
+    public void reviveOffline(UUID uuid, String name) {
+        int startingHearts = plugin.getConfigManager().getStartingHearts();
+        if (heartCache != null) {
+            heartCache.set(uuid, startingHearts);
+            // Written in the background; the value stays visible until then
+            heartCache.unload(uuid);
+        } else {
+            plugin.getDatabaseManager().setHeartsAsync(uuid, startingHearts);
+        }
+        Bukkit.getBanList(org.bukkit.BanList.Type.NAME).pardon(name);
+    }
+
     public void updateConfig() {
         // Get new values from config
         int startingHearts = plugin.getConfigManager().getStartingHearts();
@@ -132,11 +242,16 @@ public class HeartManager {
         // Get hearts to steal from config
         int heartsToSteal = plugin.getConfigManager().getHeartsLostPerDeath();
         
-        // Remove hearts from victim
-        removeHearts(victim, heartsToSteal);
+        // Take hearts from the victim and give them to the killer in one step
+        HeartTransfer transfer = transferHearts(victim, killer, heartsToSteal);
+        if (transfer == null) {
+            return;
+        }
         
-        // Add hearts to killer
-        addHearts(killer, heartsToSteal);
+        applyHearts(victim, transfer.victimHearts);
+        applyHearts(killer, transfer.killerHearts);
+        playHeartGainSound(killer);
+        playHeartLossEffects(victim, transfer.victimHearts);
         
         // Send messages
         killer.sendMessage(ColorUtils.colorize("&aYou stole " + heartsToSteal + " heart(s) from " + victim.getName() + "!"));
@@ -27,7 +27,10 @@ public class ModeManager {
     }
     private final LifeSteal plugin;
     private boolean isPvPMode = true;
-    private BukkitTask rotationTask;
+    // The next switch is an event on the schedule manager while the cycle is running,
+    // not saved there since cycle_timer already holds nextSwitch
+    private static final String SWITCH_EVENT = "mode:switch";
+    private boolean rotating;
     private BukkitTask actionBarTask;
     private BukkitTask messageRotationTask;
     private long nextSwitch;
@@ -125,11 +128,11 @@ public class ModeManager {
     }
 
     private void saveTimerData() {
-        cycleTimerDatabase.saveCycleTimerData(isPvPMode ? "PVP" : "PVE", nextSwitch);
+        cycleTimerDatabase.saveCycleTimerDataAsync(isPvPMode ? "PVP" : "PVE", nextSwitch);
     }
 
     public void startRotation() {
-        if (rotationTask != null) {
+        if (rotating) {
             stopRotation();
         }
 
@@ -154,13 +157,9 @@ public class ModeManager {
             }
         }
 
-        // Start the rotation task
-        rotationTask = new BukkitRunnable() {
-            @Override
-            public void run() {
-                switchMode();
-            }
-        }.runTaskTimer(plugin, 0L, 20L * 60L);
+        // Schedule the next switch
+        rotating = true;
+        scheduleSwitch();
 
         Bukkit.getOnlinePlayers().forEach(modeBar::addPlayer);
         
@@ -207,10 +206,8 @@ public class ModeManager {
     }
 
     public void stopRotation() {
-        if (rotationTask != null) {
-            rotationTask.cancel();
-            rotationTask = null;
-        }
+        rotating = false;
+        plugin.getScheduleManager().cancel(SWITCH_EVENT);
         if (actionBarTask != null) {
             actionBarTask.cancel();
             actionBarTask = null;
@@ -224,6 +221,15 @@ public class ModeManager {
         saveTimerData();
     }
 
+    /**
+     * Moves the switch event to nextSwitch. Only while the cycle is running.
+     */
+    private void scheduleSwitch() {
+        if (rotating) {
+            plugin.getScheduleManager().schedule(SWITCH_EVENT, nextSwitch, this::switchMode, false);
+        }
+    }
+
     private void switchMode() {
         if (System.currentTimeMillis() >= nextSwitch) {
             isPvPMode = !isPvPMode;
@@ -269,6 +275,7 @@ public class ModeManager {
             
             saveTimerData();
         }
+        scheduleSwitch();
     }
 
     private void startActionBar() {
@@ -327,12 +334,14 @@ public class ModeManager {
         // Only update the color, the title will be handled by message rotation
         modeBar.setColor(pvp ? BarColor.RED : BarColor.GREEN);
         saveTimerData();
+        scheduleSwitch();
     }
 
     // Add time (in millis) to current mode
     public void addTime(long millis) {
         this.nextSwitch += millis;
         saveTimerData();
+        scheduleSwitch();
     }
 
     // Subtract time (in millis) from current mode
@@ -342,6 +351,7 @@ public class ModeManager {
             this.nextSwitch = System.currentTimeMillis();
         }
         saveTimerData();
+        scheduleSwitch();
     }
 
     // Get time left in millis
@@ -0,0 +1,121 @@
+package com.lifesteal.managers;
+
+import com.lifesteal.LifeSteal;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Maps names to UUIDs and back without asking Mojang. Every join is recorded in
+ * the player_names table; recently used entries are also kept in memory. Lookups
+ * of online players and remembered entries answer right away, anything else is
+ * read from the database on the database thread.
+ */
+public class NameCache {
+    private static final int MAX_ENTRIES = 2048;
+
+    private final LifeSteal plugin;
+    private final Map<UUID, String> names = lru();
+    private final Map<String, UUID> ids = lru();
+
+    public NameCache(LifeSteal plugin) {
+        this.plugin = plugin;
+    }
+
+    private static <K, V> Map<K, V> lru() {
+        return new LinkedHashMap<K, V>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > MAX_ENTRIES;
+            }
+        };
+    }
+
+    /**
+     * Called on join. Records the current name, which also takes it over from
+     * whoever used it before.
+     */
+    public void remember(Player player) {
+        put(player.getUniqueId(), player.getName());
+        plugin.getDatabaseManager().savePlayerNameAsync(player.getUniqueId(), player.getName(), System.currentTimeMillis());
+    }
+
+    private synchronized void put(UUID uuid, String name) {
+        String previous = names.put(uuid, name);
+        if (previous != null && !previous.equalsIgnoreCase(name)) {
+            ids.remove(previous.toLowerCase(Locale.ROOT), uuid);
+        }
+        ids.put(name.toLowerCase(Locale.ROOT), uuid);
+    }
+
+    /**
+     * The name if the player is online or remembered, otherwise null. Never blocks.
+     */
+    public String getName(UUID uuid) {
+        Player player = Bukkit.getPlayer(uuid);
+        if (player != null) {
+            return player.getName();
+        }
+        synchronized (this) {
+            return names.get(uuid);
+        }
+    }
+
+    /**
+     * Like {@link #getName(UUID)}, with the given fallback instead of null.
+     */
+    public String getName(UUID uuid, String fallback) {
+        String name = getName(uuid);
+        return name != null ? name : fallback;
+    }
+
+    /**
+     * The last known name, read from the database if it is not in memory.
+     * Completes with null for players that never joined.
+     */
+    public CompletableFuture<String> getNameAsync(UUID uuid) {
+        String name = getName(uuid);
+        if (name != null) {
+            return CompletableFuture.completedFuture(name);
+        }
+        return plugin.getDatabaseManager().getPlayerNameAsync(uuid).thenApply(stored -> {
+            if (stored != null) {
+                synchronized (this) {
+                    names.putIfAbsent(uuid, stored);
+                }
+            }
+            return stored;
+        });
+    }
+
+    /**
+     * The UUID of the player who last joined with this name, ignoring case.
+     * Completes with null for names that never joined this server.
+     */
+    public CompletableFuture<UUID> resolveAsync(String name) {
+        Player player = Bukkit.getPlayerExact(name);
+        if (player != null) {
+            return CompletableFuture.completedFuture(player.getUniqueId());
+        }
+        String key = name.toLowerCase(Locale.ROOT);
+        synchronized (this) {
+            UUID uuid = ids.get(key);
+            if (uuid != null) {
+                return CompletableFuture.completedFuture(uuid);
+            }
+        }
+        return plugin.getDatabaseManager().getPlayerIdByNameAsync(name).thenApply(uuid -> {
+            if (uuid != null) {
+                synchronized (this) {
+                    ids.putIfAbsent(key, uuid);
+                }
+            }
+            return uuid;
+        });
+    }
+}
@@ -0,0 +1,95 @@
+package com.lifesteal.managers;
+
+import java.util.UUID;
+
+/**
+ * Everything the plugin tracks about an online player that does not need to be
+ * saved. Created on join and dropped on quit by {@link SessionManager}.
+ * Hearts and allies are loaded alongside the session by their own caches.
+ */
+public class PlayerSession {
+    private final UUID uuid;
+
+    // Set from the hearts read before the player joined
+    private boolean eliminated;
+
+    // Border
+    private long lastBorderWarning;
+    private long lastBorderDamage;
+
+    // Items
+    private long lastHeartItemUse;
+
+    // Death
+    private boolean pendingHeartLoss;
+
+    // Bounty
+    private boolean bountyTarget;
+    private boolean rareBounty;
+
+    public PlayerSession(UUID uuid) {
+        this.uuid = uuid;
+    }
+
+    public UUID getUniqueId() {
+        return uuid;
+    }
+
+    public boolean isEliminated() {
+        return eliminated;
+    }
+
+    public void setEliminated(boolean eliminated) {
+        this.eliminated = eliminated;
+    }
+
+    public long getLastBorderWarning() {
+        return lastBorderWarning;
+    }
+
+    public void setLastBorderWarning(long lastBorderWarning) {
+        this.lastBorderWarning = lastBorderWarning;
+    }
+
+    public long getLastBorderDamage() {
+        return lastBorderDamage;
+    }
+
+    public void setLastBorderDamage(long lastBorderDamage) {
+        this.lastBorderDamage = lastBorderDamage;
+    }
+
+    public long getLastHeartItemUse() {
+        return lastHeartItemUse;
+    }
+
+    public void setLastHeartItemUse(long lastHeartItemUse) {
+        this.lastHeartItemUse = lastHeartItemUse;
+    }
+
+    public boolean hasPendingHeartLoss() {
+        return pendingHeartLoss;
+    }
+
+    public void setPendingHeartLoss(boolean pendingHeartLoss) {
+        this.pendingHeartLoss = pendingHeartLoss;
+    }
+
+    public boolean hasBounty() {
+        return bountyTarget;
+    }
+
+    public boolean isRareBounty() {
+        return bountyTarget && rareBounty;
+    }
+
+    public void setBounty(boolean rare) {
+        this.bountyTarget = true;
+        this.rareBounty = rare;
+    }
+
+    public void clearBounty() {
+        this.bountyTarget = false;
+        this.rareBounty = false;
+    }
+}
@@ -0,0 +1,208 @@
+package com.lifesteal.managers;
+
+import com.lifesteal.LifeSteal;
+import com.lifesteal.utils.TimerWheel;
+import org.bukkit.Bukkit;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+
+/**
+ * Plugin-wide deadlines, such as border warnings and shrinks, PvP cycle switches
+ * and bounty broadcasts. Every event is kept in one timer wheel that advances
+ * once per second from a single task, instead of a scheduler task per event.
+ * Events are identified by key, so scheduling a key again moves its deadline
+ * and any event can be cancelled. Persistent deadlines are saved in batches so
+ * owners can pick them up again after a restart; owners that keep their own
+ * deadlines schedule without saving. Server thread only.
+ */
+public class ScheduleManager {
+    private static final int WHEEL_SIZE = 512;
+
+    private final LifeSteal plugin;
+    private final TimerWheel<String> wheel = new TimerWheel<>(WHEEL_SIZE, this::expire);
+    private final Map<String, Event> events = new HashMap<>();
+    // Deadlines found at startup that nobody has scheduled again yet
+    private final Map<String, Long> saved;
+    // Keys whose deadline changed since the last save
+    private final Set<String> dirty = new HashSet<>();
+    private BukkitTask tickTask;
+
+    private static final class Event {
+        private final long deadline;
+        private final Runnable action;
+        private final boolean persistent;
+
+        private Event(long deadline, Runnable action, boolean persistent) {
+            this.deadline = deadline;
+            this.action = action;
+            this.persistent = persistent;
+        }
+    }
+
+    public ScheduleManager(LifeSteal plugin) {
+        this.plugin = plugin;
+        this.saved = plugin.getDatabaseManager().getScheduledEvents();
+    }
+
+    public void start() {
+        if (tickTask != null) {
+            tickTask.cancel();
+        }
+        tickTask = Bukkit.getScheduler().runTaskTimer(plugin, this::tick, 20L, 20L);
+    }
+
+    /**
+     * Stops the wheel and saves the pending deadlines. Events cancelled by other
+     * managers while they shut down afterwards stay saved.
+     */
+    public void shutdown() {
+        if (tickTask != null) {
+            tickTask.cancel();
+            tickTask = null;
+        }
+        save();
+        wheel.clear();
+        events.clear();
+        dirty.clear();
+    }
+
+    /**
+     * Runs the action at the given time in epoch millis, replacing any event
+     * with the same key. Deadlines in the past run on the next tick. The
+     * deadline is saved for {@link #getSavedDeadline(String)}.
+     */
+    public void schedule(String key, long deadline, Runnable action) {
+        schedule(key, deadline, action, true);
+    }
+
+    /**
+     * Like {@link #schedule(String, long, Runnable)}, but only saves the deadline
+     * if persistent is set. Owners that recompute their deadlines on start pass false.
+     */
+    public void schedule(String key, long deadline, Runnable action, boolean persistent) {
+        Event previous = events.put(key, new Event(deadline, action, persistent));
+        if (saved.remove(key) != null || persistent || (previous != null && previous.persistent)) {
+            dirty.add(key);
+        }
+        wheel.schedule(key, secondsUntil(deadline));
+    }
+
+    /**
+     * Cancels the event, and forgets its saved deadline if it had one.
+     */
+    public boolean cancel(String key) {
+        boolean wasSaved = saved.remove(key) != null;
+        Event event = events.remove(key);
+        if (event != null) {
+            wheel.cancel(key);
+        }
+        if (wasSaved || (event != null && event.persistent)) {
+            dirty.add(key);
+        }
+        return event != null;
+    }
+
+    /**
+     * Cancels every event whose key starts with the prefix.
+     */
+    public void cancelAll(String prefix) {
+        List<String> keys = new ArrayList<>();
+        for (String key : events.keySet()) {
+            if (key.startsWith(prefix)) {
+                keys.add(key);
+            }
+        }
+        for (String key : saved.keySet()) {
+            if (key.startsWith(prefix)) {
+                keys.add(key);
+            }
+        }
+        for (String key : keys) {
+            cancel(key);
+        }
+    }
+
+    public boolean isScheduled(String key) {
+        return events.containsKey(key);
+    }
+
+    /**
+     * Deadline of a pending event, or 0 if there is none.
+     */
+    public long getDeadline(String key) {
+        Event event = events.get(key);
+        return event == null ? 0 : event.deadline;
+    }
+
+    /**
+     * Deadline the event had when the server last stopped, or 0 if it had none
+     * or has been scheduled or cancelled since.
+     */
+    public long getSavedDeadline(String key) {
+        return saved.getOrDefault(key, 0L);
+    }
+
+    public int size() {
+        return events.size();
+    }
+
+    private void tick() {
+        wheel.advance();
+        save();
+    }
+
+    private void expire(String key) {
+        Event event = events.get(key);
+        if (event == null) {
+            return;
+        }
+        // Deadlines are wall clock times; if the wheel got here early, wait out the rest
+        long remaining = event.deadline - System.currentTimeMillis();
+        if (remaining >= 1000) {
+            wheel.schedule(key, secondsUntil(event.deadline));
+            return;
+        }
+        events.remove(key);
+        if (event.persistent) {
+            dirty.add(key);
+        }
+        try {
+            event.action.run();
+        } catch (RuntimeException e) {
+            plugin.getLogger().log(Level.SEVERE, "Scheduled event " + key + " failed", e);
+        }
+    }
+
+    /**
+     * Writes every deadline that changed since the last save in one batch.
+     */
+    private void save() {
+        if (dirty.isEmpty()) {
+            return;
+        }
+        Map<String, Long> deadlines = new HashMap<>();
+        List<String> removed = new ArrayList<>();
+        for (String key : dirty) {
+            Event event = events.get(key);
+            if (event != null && event.persistent) {
+                deadlines.put(key, event.deadline);
+            } else {
+                removed.add(key);
+            }
+        }
+        dirty.clear();
+        plugin.getDatabaseManager().saveScheduledEventsAsync(deadlines, removed);
+    }
+
+    private static long secondsUntil(long deadline) {
+        long millis = deadline - System.currentTimeMillis();
+        return millis <= 0 ? 1 : (millis + 999) / 1000;
+    }
+}
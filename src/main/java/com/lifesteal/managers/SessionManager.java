@@ -0,0 +1,131 @@
+package com.lifesteal.managers;
+
+import com.lifesteal.LifeSteal;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Level;
+
+/**
+ * Owns the {@link PlayerSession} of every online player. Opening a session also
+ * loads the player's hearts and allies; closing it releases all of them, so
+ * nothing is kept for players who have left. Server thread only, except for
+ * {@link #preload(UUID)}.
+ */
+public class SessionManager {
+    private static final long PRELOAD_TIMEOUT = 5; // Seconds a login waits for the database
+    private static final long PRELOAD_EXPIRY = 600L; // Ticks before data of a player who never joined is dropped
+
+    private final LifeSteal plugin;
+    private final Map<UUID, PlayerSession> sessions = new HashMap<>();
+    // Sessions prepared during login, waiting for the join event
+    private final Map<UUID, PlayerSession> staged = new ConcurrentHashMap<>();
+
+    public SessionManager(LifeSteal plugin) {
+        this.plugin = plugin;
+        // Players already online after a reload never fire a join event
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            open(player);
+        }
+    }
+
+    /**
+     * Called from AsyncPlayerPreLoginEvent on the login thread. Loads hearts and
+     * allies into their caches and stages a session, so that the join itself
+     * does not wait for the database. Anything that fails to load in time is
+     * loaded lazily after the join instead.
+     */
+    public void preload(UUID uuid) {
+        PlayerSession session = new PlayerSession(uuid);
+        int hearts = plugin.getHeartManager().preload(uuid);
+        session.setEliminated(hearts <= plugin.getConfigManager().getMinHearts());
+        try {
+            plugin.getAllyManager().preload(uuid).get(PRELOAD_TIMEOUT, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            plugin.getLogger().log(Level.WARNING, "Could not preload allies for " + uuid + ", loading them after join", e);
+        }
+        staged.put(uuid, session);
+        // The login can still fail after this point, e.g. when the client times out
+        Bukkit.getScheduler().runTaskLater(plugin, () -> discardStaged(uuid, session), PRELOAD_EXPIRY);
+    }
+
+    private void discardStaged(UUID uuid, PlayerSession session) {
+        if (staged.remove(uuid, session) && !sessions.containsKey(uuid)) {
+            plugin.getHeartManager().unloadPlayer(uuid);
+            plugin.getAllyManager().unloadPlayer(uuid);
+        }
+    }
+
+    /**
+     * Called when the player joins, before anything reads their state.
+     * Takes over the session staged during login if there is one.
+     */
+    public PlayerSession open(Player player) {
+        PlayerSession session = sessions.get(player.getUniqueId());
+        if (session != null) {
+            return session;
+        }
+        session = staged.remove(player.getUniqueId());
+        if (session == null) {
+            session = new PlayerSession(player.getUniqueId());
+        }
+        sessions.put(player.getUniqueId(), session);
+        plugin.getHeartManager().loadPlayer(player);
+        plugin.getAllyManager().loadPlayer(player);
+        return session;
+    }
+
+    /**
+     * Called last when the player quits, after every quit handler has used the session.
+     */
+    public void close(Player player) {
+        if (sessions.remove(player.getUniqueId()) == null) {
+            return;
+        }
+        plugin.getHeartManager().unloadPlayer(player);
+        plugin.getAllyManager().unloadPlayer(player);
+    }
+
+    /**
+     * The player's session, opened on the spot if the join event has not been seen yet.
+     * Players who already left get a blank session that is not kept.
+     */
+    public PlayerSession get(Player player) {
+        PlayerSession session = sessions.get(player.getUniqueId());
+        if (session != null) {
+            return session;
+        }
+        return player.isOnline() ? open(player) : new PlayerSession(player.getUniqueId());
+    }
+
+    /**
+     * The session of an online player, or null if they are offline.
+     */
+    public PlayerSession get(UUID uuid) {
+        return sessions.get(uuid);
+    }
+
+    public Collection<PlayerSession> getSessions() {
+        return Collections.unmodifiableCollection(sessions.values());
+    }
+
+    public int size() {
+        return sessions.size();
+    }
+
+    public void shutdown() {
+        sessions.clear();
+        staged.clear();
+    }
+}
@@ -1,60 +1,160 @@
 package com.lifesteal.managers;
 
 import com.lifesteal.LifeSteal;
+import com.lifesteal.storage.WorldBorderState;
 import com.lifesteal.utils.ColorUtils;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.World;
 import org.bukkit.WorldBorder;
 import org.bukkit.entity.Player;
-import org.bukkit.scheduler.BukkitRunnable;
-import org.bukkit.scheduler.BukkitTask;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 
 public class WorldBorderManager {
     private final LifeSteal plugin;
-    private BukkitTask shrinkTask;
-    private BukkitTask warningTask;
-    private double currentSize;
-    private double initialSize;
-    private long lastShrinkTime;
-    private long nextShrinkTime;
-    private final int warningTime; // Warning time in seconds
+    // Shrinks and warnings are events on the schedule manager, keyed border:<world>:...
+    // They are not saved there; world_borders already holds each world's next shrink
+    private static final String EVENT_PREFIX = "border:";
+    private boolean shrinking;
+    // State of every managed world by world name
+    private final Map<String, Border> borders = new LinkedHashMap<>();
+    // Border of every enforced world by world UID, replaced whole whenever a border changes
+    private volatile Map<UUID, BorderSnapshot> snapshots = Collections.emptyMap();
+    private final BorderZoneTracker zones = new BorderZoneTracker(this);
+
+    /**
+     * Border of one world. Each world keeps its own size and shrink timeline.
+     */
+    private static final class Border {
+        final String world;
+        double currentSize; // Target size; the border may still be animating towards it
+        double initialSize;
+        long lastShrinkTime;
+        long nextShrinkTime; // 0 once the border has reached its minimum size
+        // Shrink animation in progress, if animationStart + animationMillis is in the future
+        double animationFromSize;
+        long animationStart;
+        long animationMillis;
+
+        Border(String world) {
+            this.world = world;
+        }
+
+        /**
+         * Size of the border at the given time, part way through a shrink animation if one is running.
+         */
+        double getSizeAt(long time) {
+            if (time >= animationStart + animationMillis) {
+                return currentSize;
+            }
+            double progress = (double) (time - animationStart) / animationMillis;
+            return animationFromSize + (currentSize - animationFromSize) * progress;
+        }
+
+        WorldBorderState toState() {
+            return new WorldBorderState(world, currentSize, initialSize, lastShrinkTime, nextShrinkTime);
+        }
+    }
 
     public WorldBorderManager(LifeSteal plugin) {
         this.plugin = plugin;
-        this.warningTime = plugin.getConfigManager().getConfig().getInt("world-border.warning-time", 10); // Default 10 seconds
         loadBorderData();
     }
 
+    /**
+     * Loads the border of every configured world in one query. On the first load
+     * after borders were split per world, worlds take over the single border saved
+     * before, which is then deleted. Any other world without a saved border starts
+     * at its configured size.
+     */
     public void loadBorderData() {
-        Map<String, Object> data = plugin.getDatabaseManager().getWorldBorderData();
-        this.currentSize = (double) data.get("current_size");
-        this.initialSize = (double) data.get("initial_size");
-        this.lastShrinkTime = (long) data.get("last_shrink_time");
-        this.nextShrinkTime = (long) data.get("next_shrink_time");
-        
-        // Check if config size has changed
-        double configSize = plugin.getConfigManager().getInitialBorderSize();
-        if (configSize != this.initialSize) {
-            // Config size has changed, reset to new size
-            this.initialSize = configSize;
-            this.currentSize = configSize;
-            this.lastShrinkTime = System.currentTimeMillis();
-            this.nextShrinkTime = lastShrinkTime + TimeUnit.MINUTES.toMillis(plugin.getConfigManager().getWorldBorderShrinkInterval());
-            saveBorderData();
+        Map<String, WorldBorderState> saved = plugin.getDatabaseManager().getWorldBorders();
+        WorldBorderState legacy = saved.get(WorldBorderState.LEGACY_WORLD);
+        boolean changed = legacy != null;
+
+        borders.clear();
+        for (String worldName : plugin.getConfigManager().getWorldBorderWorlds()) {
+            Border border = new Border(worldName);
+            WorldBorderState state = saved.get(worldName);
+            if (state == null) {
+                state = legacy;
+            }
+            borders.put(worldName, border);
+
+            if (state == null) {
+                reset(border, System.currentTimeMillis());
+                changed = true;
+                continue;
+            }
+            border.currentSize = state.currentSize;
+            border.initialSize = state.initialSize;
+            border.lastShrinkTime = state.lastShrinkTime;
+            border.nextShrinkTime = state.nextShrinkTime;
+
+            // Check if config size has changed
+            if (plugin.getConfigManager().getInitialBorderSize(worldName) != border.initialSize) {
+                // Config size has changed, reset to new size
+                reset(border, System.currentTimeMillis());
+                changed = true;
+            }
+        }
+
+        if (changed) {
+            saveBorderData(legacy != null
+                    ? Collections.singletonList(WorldBorderState.LEGACY_WORLD)
+                    : Collections.emptyList());
         }
     }
 
+    /**
+     * Saves every border in one batch.
+     */
     public void saveBorderData() {
-        plugin.getDatabaseManager().saveWorldBorderData(currentSize, initialSize, lastShrinkTime, nextShrinkTime);
+        saveBorderData(Collections.emptyList());
+    }
+
+    private void saveBorderData(List<String> removedWorlds) {
+        List<WorldBorderState> states = new ArrayList<>();
+        for (Border border : borders.values()) {
+            states.add(border.toState());
+        }
+        plugin.getDatabaseManager().saveWorldBordersAsync(states, removedWorlds);
+    }
+
+    /**
+     * The border of a configured world, starting at its configured size if the
+     * world was added since the borders were loaded.
+     */
+    private Border getBorder(String worldName) {
+        Border border = borders.get(worldName);
+        if (border == null) {
+            border = new Border(worldName);
+            reset(border, System.currentTimeMillis());
+            borders.put(worldName, border);
+        }
+        return border;
+    }
+
+    private void reset(Border border, long now) {
+        double configSize = plugin.getConfigManager().getInitialBorderSize(border.world);
+        border.initialSize = configSize;
+        border.currentSize = configSize;
+        border.lastShrinkTime = now;
+        border.nextShrinkTime = now + TimeUnit.MINUTES.toMillis(plugin.getConfigManager().getWorldBorderShrinkInterval(border.world));
+        border.animationMillis = 0;
     }
 
     public void initializeBorder() {
         if (!plugin.getConfigManager().isWorldBorderEnabled()) {
+            refreshSnapshots();
             return;
         }
 
@@ -62,20 +162,19 @@ public class WorldBorderManager {
         boolean useWorldSpawn = plugin.getConfigManager().useWorldSpawnAsCenter();
         double centerX = plugin.getConfigManager().getWorldBorderCenterX();
         double centerZ = plugin.getConfigManager().getWorldBorderCenterZ();
-        
-        // Get the initial size from config
-        double configSize = plugin.getConfigManager().getInitialBorderSize();
-        
-        // If config size has changed, update both initial and current size
-        if (configSize != this.initialSize) {
-            this.initialSize = configSize;
-            this.currentSize = configSize;
-            this.lastShrinkTime = System.currentTimeMillis();
-            this.nextShrinkTime = lastShrinkTime + TimeUnit.MINUTES.toMillis(plugin.getConfigManager().getWorldBorderShrinkInterval());
-            saveBorderData();
-        }
+        boolean changed = false;
         
         for (String worldName : worldNames) {
+            Border state = getBorder(worldName);
+
+            // If config size has changed, update both initial and current size
+            if (plugin.getConfigManager().getInitialBorderSize(worldName) != state.initialSize) {
+                reset(state, System.currentTimeMillis());
+                changed = true;
+            }
+            // Borders are set to their final size, ending any animation
+            state.animationMillis = 0;
+
             World world = Bukkit.getWorld(worldName);
             if (world != null) {
                 WorldBorder border = world.getWorldBorder();
@@ -89,66 +188,58 @@ public class WorldBorderManager {
                     border.setCenter(centerX, centerZ);
                 }
                 
-                border.setSize(currentSize);
+                border.setSize(state.currentSize);
                 border.setDamageAmount(plugin.getConfigManager().getWorldBorderDamageAmount());
                 border.setDamageBuffer(plugin.getConfigManager().getWorldBorderDamageBuffer());
                 border.setWarningDistance(plugin.getConfigManager().getWorldBorderWarningDistance());
-                plugin.getLogger().info("Initialized world border for world: " + worldName + " with size: " + currentSize + " (initial: " + initialSize + ")");
+                plugin.getLogger().info("Initialized world border for world: " + worldName + " with size: " + state.currentSize + " (initial: " + state.initialSize + ")");
             } else {
                 plugin.getLogger().warning("Could not find world: " + worldName + " for world border initialization");
             }
         }
+        if (changed) {
+            saveBorderData();
+        }
+        refreshSnapshots();
         
         if (plugin.getConfigManager().isWorldBorderShrinkEnabled()) {
             startShrinkTask();
         }
     }
 
+    /**
+     * Schedules the next shrink of every world, with its warnings, on the
+     * schedule manager. Each world keeps its own timeline.
+     */
     public void startShrinkTask() {
-        if (shrinkTask != null) {
-            shrinkTask.cancel();
-        }
-        
-        long intervalMinutes = plugin.getConfigManager().getWorldBorderShrinkInterval();
-        long intervalTicks = intervalMinutes * 60 * 20;
+        // Drops events of worlds that are no longer configured, too
+        plugin.getScheduleManager().cancelAll(EVENT_PREFIX);
+        shrinking = true;
         
         long now = System.currentTimeMillis();
-        long initialDelay = 0;
-        
-        if (nextShrinkTime > now) {
-            initialDelay = (nextShrinkTime - now) / 50;
-        } else if (nextShrinkTime == 0) {
-            nextShrinkTime = now + TimeUnit.MINUTES.toMillis(intervalMinutes);
+        boolean changed = false;
+        for (String worldName : plugin.getConfigManager().getWorldBorderWorlds()) {
+            Border border = getBorder(worldName);
+            // Borders that stopped at their minimum resume if the minimum was lowered
+            if (border.nextShrinkTime == 0 && border.currentSize > plugin.getConfigManager().getWorldBorderMinSize(worldName)) {
+                border.nextShrinkTime = now + TimeUnit.MINUTES.toMillis(plugin.getConfigManager().getWorldBorderShrinkInterval(worldName));
+                changed = true;
+            }
+            scheduleShrink(border);
+        }
+        if (changed) {
             saveBorderData();
         }
         
-        shrinkTask = Bukkit.getScheduler().runTaskTimer(plugin, () -> {
-            if (plugin.getConfigManager().isWorldBorderEnabled() && 
-                plugin.getConfigManager().isWorldBorderShrinkEnabled()) {
-                shrinkBorder(false);
-            }
-        }, initialDelay, intervalTicks);
-        
-        plugin.getLogger().info("Started world border shrink task with interval: " + intervalMinutes + " minutes");
+        plugin.getLogger().info("Scheduled world border shrinks for " + borders.size() + " world(s)");
     }
 
+    /**
+     * Cancels every pending shrink and warning.
+     */
     public void stopShrinkTask() {
-        if (shrinkTask != null) {
-            shrinkTask.cancel();
-            shrinkTask = null;
-        }
-        
-        if (warningTask != null) {
-            warningTask.cancel();
-            warningTask = null;
-        }
-    }
-
-    public void cancelWarningTask() {
-        if (warningTask != null) {
-            warningTask.cancel();
-            warningTask = null;
-        }
+        shrinking = false;
+        plugin.getScheduleManager().cancelAll(EVENT_PREFIX);
     }
 
     public void updateConfig() {
@@ -158,219 +249,233 @@ public class WorldBorderManager {
         // Reinitialize border if enabled
         if (plugin.getConfigManager().isWorldBorderEnabled()) {
             initializeBorder();
-            startShrinkTask();
+        } else {
+            refreshSnapshots();
         }
     }
 
-    public void shrinkBorder(boolean immediate) {
+    /**
+     * Replaces the world's pending events with its next shrink and the warnings
+     * before it. Warnings whose time has already passed are skipped.
+     */
+    private void scheduleShrink(Border border) {
+        ScheduleManager schedule = plugin.getScheduleManager();
+        String prefix = EVENT_PREFIX + border.world + ":";
+        schedule.cancelAll(prefix);
+        if (!shrinking || border.nextShrinkTime == 0) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        String worldName = border.world;
+        for (ConfigManager.WarningTime warning : plugin.getConfigManager().getWorldBorderWarningTimes()) {
+            long at = border.nextShrinkTime - TimeUnit.SECONDS.toMillis(warning.seconds);
+            if (at > now) {
+                schedule.schedule(prefix + "warning:" + warning.seconds, at,
+                        () -> announce(worldName, warning.message, "entity.ender_dragon.growl", 1.0f), false);
+            }
+        }
+        schedule.schedule(prefix + "shrink", border.nextShrinkTime, () -> onShrinkDue(worldName), false);
+    }
+
+    private void onShrinkDue(String worldName) {
         if (!plugin.getConfigManager().isWorldBorderEnabled() || !plugin.getConfigManager().isWorldBorderShrinkEnabled()) {
             return;
         }
 
-        final double currentSize = getCurrentSize();
-        double minSize = plugin.getConfigManager().getWorldBorderMinSize();
+        Border border = getBorder(worldName);
+        shrink(border, System.currentTimeMillis());
+        scheduleShrink(border);
+        refreshSnapshots();
+        saveBorderData();
+    }
+
+    /**
+     * Shrinks every managed border straight away, whatever its timeline says.
+     */
+    public void shrinkNow() {
+        if (!plugin.getConfigManager().isWorldBorderEnabled() || !plugin.getConfigManager().isWorldBorderShrinkEnabled()) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        for (String worldName : plugin.getConfigManager().getWorldBorderWorlds()) {
+            Border border = getBorder(worldName);
+            shrink(border, now);
+            // Warnings for the old deadline no longer apply
+            scheduleShrink(border);
+        }
+        refreshSnapshots();
+        saveBorderData();
+    }
+
+    private void shrink(Border border, long now) {
+        double minSize = plugin.getConfigManager().getWorldBorderMinSize(border.world);
 
         // Check if we've reached minimum size
-        if (currentSize <= minSize) {
-            // Stop the shrinking task since we've reached minimum
-            if (shrinkTask != null) {
-                shrinkTask.cancel();
-                shrinkTask = null;
-            }
+        if (border.currentSize <= minSize) {
+            // Stop shrinking this world since it reached its minimum
+            border.nextShrinkTime = 0;
             // Send message only once
             String message = plugin.getConfigManager().getConfig().getString("world-border.messages.min-size-reached");
             if (message != null) {
-                Bukkit.broadcastMessage(ColorUtils.colorize(message));
+                announce(border.world, message, null, 1.0f);
             }
             return;
         }
 
-        double shrinkAmount = plugin.getConfigManager().getWorldBorderShrinkAmount();
-        final double actualShrinkAmount = shrinkAmount;
+        // Calculate new size
+        double newSize = Math.max(border.currentSize - plugin.getConfigManager().getWorldBorderShrinkAmount(border.world), minSize);
+        applyShrink(border, newSize, now);
+    }
 
-        if (immediate) {
-            // Calculate new size
-            double newSize = currentSize - actualShrinkAmount;
-            if (newSize < minSize) {
-                newSize = minSize;
-            }
-            
-            // Update current size
-            this.currentSize = newSize;
-            
-            // Apply to world border
-            List<String> worldNames = plugin.getConfigManager().getWorldBorderWorlds();
-            for (String worldName : worldNames) {
-                World world = Bukkit.getWorld(worldName);
-                if (world != null) {
-                    WorldBorder border = world.getWorldBorder();
-                    border.setSize(newSize, 0);
-                    plugin.getLogger().info("World border size changed to: " + newSize + " in world: " + worldName);
-                }
-            }
-            
-            lastShrinkTime = System.currentTimeMillis();
-            nextShrinkTime = lastShrinkTime + TimeUnit.MINUTES.toMillis(plugin.getConfigManager().getWorldBorderShrinkInterval());
-            saveBorderData();
-            
-            String shrunkMessage = plugin.getConfigManager().getConfig().getString("world-border.messages.border-shrunk", "&c&lBORDER SHRUNK! &fThe world border has shrunk to &e%size% &fblocks!")
-                    .replace("%size%", String.valueOf((int) newSize));
-            Bukkit.broadcastMessage(ColorUtils.colorize(shrunkMessage));
-            
-            // Play scary sound
-            for (Player player : Bukkit.getOnlinePlayers()) {
-                player.playSound(player.getLocation(), "entity.ender_dragon.death", 1.0f, 0.5f);
-            }
-        } else {
-            // Schedule all warning messages
-            int totalSeconds = plugin.getConfigManager().getWorldBorderShrinkInterval() * 60;
-            List<ConfigManager.WarningTime> warningTimes = plugin.getConfigManager().getWorldBorderWarningTimes();
-            for (ConfigManager.WarningTime warning : warningTimes) {
-                int delay = totalSeconds - warning.seconds;
-                if (delay < 0) continue;
-                Bukkit.getScheduler().runTaskLater(plugin, () -> {
-                    Bukkit.broadcastMessage(ColorUtils.colorize(warning.message));
-                    for (Player player : Bukkit.getOnlinePlayers()) {
-                        player.playSound(player.getLocation(), "entity.ender_dragon.growl", 1.0f, 1.0f);
-                    }
-                }, delay * 20L);
+    /**
+     * Moves the world's border to the new size, over the configured animation
+     * time if there is one, and announces it to the players in that world.
+     */
+    private void applyShrink(Border state, double newSize, long now) {
+        long intervalMillis = TimeUnit.MINUTES.toMillis(plugin.getConfigManager().getWorldBorderShrinkInterval(state.world));
+        // Never animate past the next shrink
+        long animationSeconds = Math.min(plugin.getConfigManager().getWorldBorderShrinkAnimationTime(state.world),
+                TimeUnit.MILLISECONDS.toSeconds(intervalMillis));
+
+        state.animationFromSize = state.getSizeAt(now);
+        state.animationStart = now;
+        state.animationMillis = TimeUnit.SECONDS.toMillis(animationSeconds);
+        state.currentSize = newSize;
+        state.lastShrinkTime = now;
+        state.nextShrinkTime = now + intervalMillis;
+
+        // Apply to world border
+        World world = Bukkit.getWorld(state.world);
+        if (world != null) {
+            WorldBorder border = world.getWorldBorder();
+            border.setSize(newSize, animationSeconds);
+            plugin.getLogger().info("World border size changed to: " + newSize + " in world: " + state.world
+                    + (animationSeconds > 0 ? " over " + animationSeconds + " seconds" : ""));
+        }
+
+        String shrunkMessage = plugin.getConfigManager().getConfig().getString("world-border.messages.border-shrunk", "&c&lBORDER SHRUNK! &fThe world border has shrunk to &e%size% &fblocks!")
+                .replace("%size%", String.valueOf((int) newSize));
+        // Play scary sound
+        announce(state.world, shrunkMessage, "entity.ender_dragon.death", 0.5f);
+    }
+
+    /**
+     * Sends a message, and a sound if one is given, to everyone in the world.
+     */
+    private void announce(String worldName, String message, String sound, float pitch) {
+        World world = Bukkit.getWorld(worldName);
+        if (world == null) {
+            return;
+        }
+        String text = ColorUtils.colorize(message.replace("%world%", worldName));
+        for (Player player : world.getPlayers()) {
+            player.sendMessage(text);
+            if (sound != null) {
+                player.playSound(player.getLocation(), sound, 1.0f, pitch);
             }
-            // Schedule the actual shrink at the end of the interval
-            warningTask = Bukkit.getScheduler().runTaskLater(plugin, () -> {
-                // Calculate new size
-                double newSize = currentSize - actualShrinkAmount;
-                if (newSize < minSize) {
-                    newSize = minSize;
-                }
-                // Update current size
-                WorldBorderManager.this.currentSize = newSize;
-                // Apply to world border
-                List<String> worldNames = plugin.getConfigManager().getWorldBorderWorlds();
-                for (String worldName : worldNames) {
-                    World world = Bukkit.getWorld(worldName);
-                    if (world != null) {
-                        WorldBorder border = world.getWorldBorder();
-                        border.setSize(newSize, 0);
-                        plugin.getLogger().info("World border size changed to: " + newSize + " in world: " + worldName);
-                    }
-                }
-                lastShrinkTime = System.currentTimeMillis();
-                nextShrinkTime = lastShrinkTime + TimeUnit.MINUTES.toMillis(plugin.getConfigManager().getWorldBorderShrinkInterval());
-                saveBorderData();
-                String shrunkMessage = plugin.getConfigManager().getConfig().getString("world-border.messages.border-shrunk", "&c&lBORDER SHRUNK! &fThe world border has shrunk to &e%size% &fblocks!")
-                        .replace("%size%", String.valueOf((int) newSize));
-                Bukkit.broadcastMessage(ColorUtils.colorize(shrunkMessage));
-                // Play scary sound
-                for (Player player : Bukkit.getOnlinePlayers()) {
-                    player.playSound(player.getLocation(), "entity.ender_dragon.death", 1.0f, 0.5f);
-                }
-            }, totalSeconds * 20L);
         }
     }
 
     public void resetBorder() {
-        double configSize = plugin.getConfigManager().getInitialBorderSize();
-        List<String> worldNames = plugin.getConfigManager().getWorldBorderWorlds();
-        
-        // Update both initial and current size
-        this.initialSize = configSize;
-        this.currentSize = configSize;
-        this.lastShrinkTime = System.currentTimeMillis();
-        this.nextShrinkTime = lastShrinkTime + TimeUnit.MINUTES.toMillis(plugin.getConfigManager().getWorldBorderShrinkInterval());
-        saveBorderData();
+        long now = System.currentTimeMillis();
         
-        for (String worldName : worldNames) {
+        for (String worldName : plugin.getConfigManager().getWorldBorderWorlds()) {
+            // Update both initial and current size
+            Border state = getBorder(worldName);
+            reset(state, now);
+            scheduleShrink(state);
+
             World world = Bukkit.getWorld(worldName);
             if (world != null) {
                 WorldBorder border = world.getWorldBorder();
-                border.setSize(configSize);
+                border.setSize(state.currentSize);
             }
+            plugin.getLogger().info("World border reset to initial size: " + state.currentSize + " in world: " + worldName);
         }
-        
-        plugin.getLogger().info("World border reset to initial size: " + configSize);
+        saveBorderData();
+        refreshSnapshots();
     }
 
-    public boolean isOutsideBorder(Location location) {
-        World world = location.getWorld();
-        if (world == null) return false;
-        
-        List<String> configuredWorlds = plugin.getConfigManager().getWorldBorderWorlds();
-        if (!configuredWorlds.contains(world.getName())) {
-            return false;
+    /**
+     * Copies the current border of every configured world. Call after anything
+     * changes a border or the configuration; worlds without a snapshot are not enforced.
+     */
+    public void refreshSnapshots() {
+        Map<UUID, BorderSnapshot> updated = new HashMap<>();
+        if (plugin.getConfigManager().isWorldBorderEnabled()) {
+            for (String worldName : plugin.getConfigManager().getWorldBorderWorlds()) {
+                World world = Bukkit.getWorld(worldName);
+                if (world != null) {
+                    Border border = getBorder(worldName);
+                    updated.put(world.getUID(), BorderSnapshot.of(world, border.animationFromSize, border.currentSize,
+                            border.animationStart, border.animationMillis));
+                }
+            }
         }
-        
-        WorldBorder border = world.getWorldBorder();
-        Location center = border.getCenter();
-        double size = border.getSize() / 2;
-        
-        double x = location.getX();
-        double z = location.getZ();
-        
-        return Math.abs(x - center.getX()) > size || Math.abs(z - center.getZ()) > size;
+        snapshots = updated;
+        zones.updateAll();
+    }
+
+    /**
+     * The enforced border of the world, or null if the plugin does not manage it.
+     */
+    public BorderSnapshot getSnapshot(World world) {
+        return world == null ? null : snapshots.get(world.getUID());
+    }
+
+    public BorderZoneTracker getZoneTracker() {
+        return zones;
+    }
+
+    public boolean isOutsideBorder(Location location) {
+        BorderSnapshot border = getSnapshot(location.getWorld());
+        return border != null && border.isOutside(location.getX(), location.getZ());
     }
     
     public double getDistanceOutsideBorder(Location location) {
-        World world = location.getWorld();
-        if (world == null) return 0;
-        
-        List<String> configuredWorlds = plugin.getConfigManager().getWorldBorderWorlds();
-        if (!configuredWorlds.contains(world.getName())) {
-            return 0;
-        }
-        
-        WorldBorder border = world.getWorldBorder();
-        Location center = border.getCenter();
-        double radius = border.getSize() / 2;
-        
-        double x = location.getX();
-        double z = location.getZ();
-        
-        double dx = Math.abs(x - center.getX()) - radius;
-        double dz = Math.abs(z - center.getZ()) - radius;
-        
-        if (dx <= 0 && dz <= 0) {
-            return 0;
-        }
-        
-        if (dx > 0 && dz > 0) {
-            return Math.sqrt(dx * dx + dz * dz);
-        } else {
-            return Math.max(dx, dz);
-        }
+        BorderSnapshot border = getSnapshot(location.getWorld());
+        return border == null ? 0 : border.distanceOutside(location.getX(), location.getZ());
     }
     
     public boolean isNearBorder(Location location, double distance) {
-        World world = location.getWorld();
-        if (world == null) return false;
-        
-        List<String> configuredWorlds = plugin.getConfigManager().getWorldBorderWorlds();
-        if (!configuredWorlds.contains(world.getName())) {
-            return false;
-        }
-        
-        WorldBorder border = world.getWorldBorder();
-        Location center = border.getCenter();
-        double radius = border.getSize() / 2;
-        
-        double x = location.getX();
-        double z = location.getZ();
-        
-        double dx = Math.abs(x - center.getX());
-        double dz = Math.abs(z - center.getZ());
-        
-        return (Math.abs(dx - radius) < distance || Math.abs(dz - radius) < distance);
+        BorderSnapshot border = getSnapshot(location.getWorld());
+        return border != null && border.isNear(location.getX(), location.getZ(), distance);
+    }
+
+    /**
+     * Names of the worlds with a border, in configuration order.
+     */
+    public List<String> getManagedWorlds() {
+        return plugin.getConfigManager().getWorldBorderWorlds();
     }
 
-    public double getCurrentSize() {
-        return currentSize;
+    public double getCurrentSize(String worldName) {
+        return getBorder(worldName).currentSize;
     }
 
+    public long getTimeUntilNextShrink(String worldName) {
+        long next = getBorder(worldName).nextShrinkTime;
+        return next == 0 ? 0 : Math.max(0, next - System.currentTimeMillis());
+    }
+
+    /**
+     * Time until the next shrink in any world, or 0 if none is scheduled.
+     */
     public long getTimeUntilNextShrink() {
-        return Math.max(0, nextShrinkTime - System.currentTimeMillis());
+        long soonest = 0;
+        for (String worldName : getManagedWorlds()) {
+            long next = getBorder(worldName).nextShrinkTime;
+            if (next != 0 && (soonest == 0 || next < soonest)) {
+                soonest = next;
+            }
+        }
+        return soonest == 0 ? 0 : Math.max(0, soonest - System.currentTimeMillis());
     }
 
-    public String getFormattedTimeUntilNextShrink() {
-        long millis = getTimeUntilNextShrink();
+    public String getFormattedTimeUntilNextShrink(String worldName) {
+        long millis = getTimeUntilNextShrink(worldName);
         long minutes = TimeUnit.MILLISECONDS.toMinutes(millis);
         long seconds = TimeUnit.MILLISECONDS.toSeconds(millis) - TimeUnit.MINUTES.toSeconds(minutes);
         
@@ -0,0 +1,291 @@
+package com.lifesteal.storage;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * Small fixed-size JDBC connection pool.
+ * Connections handed out by {@link #getConnection()} return to the pool when closed,
+ * so callers keep using try-with-resources exactly as with a plain connection.
+ * Idle connections are validated before they are handed out again and replaced
+ * when the server has dropped them (for example after MySQL's wait_timeout).
+ * Each connection keeps its prepared statements in a {@link StatementCache}, so a
+ * statement is parsed once per connection rather than once per call.
+ */
+public class ConnectionPool implements AutoCloseable {
+    // Connections used more recently than this are handed out without a validation round trip
+    private static final long VALIDATION_BYPASS_MILLIS = 500;
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+    public static final int STATEMENT_CACHE_SIZE = 32;
+
+    private final Logger logger;
+    private final String url;
+    private final String username;
+    private final String password;
+    private final int maxSize;
+    private final long borrowTimeoutMillis;
+
+    private final BlockingDeque<PooledEntry> idle = new LinkedBlockingDeque<>();
+    private final Semaphore permits;
+    private final AtomicInteger openConnections = new AtomicInteger();
+    private volatile boolean closed = false;
+    private SqlWork<?> initializer;
+
+    // Metrics
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong borrowWaitNanos = new AtomicLong();
+    private final AtomicLong createdCount = new AtomicLong();
+    private final AtomicLong validationFailures = new AtomicLong();
+    private final AtomicLong timeoutCount = new AtomicLong();
+    private final StatementCache.Stats statementStats = new StatementCache.Stats();
+
+    public ConnectionPool(Logger logger, String url, String username, String password, int maxSize, long borrowTimeoutMillis) {
+        this.logger = logger;
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.maxSize = Math.max(1, maxSize);
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+        this.permits = new Semaphore(this.maxSize, true);
+    }
+
+    /**
+     * Work run once on every physical connection right after it is opened,
+     * e.g. session pragmas. Must be set before {@link #warmUp()}.
+     */
+    public void setInitializer(SqlWork<?> initializer) {
+        this.initializer = initializer;
+    }
+
+    /**
+     * Opens the first connection so configuration errors show up at startup.
+     */
+    public void warmUp() throws SQLException {
+        idle.offerFirst(new PooledEntry(openPhysical()));
+    }
+
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(borrowTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                timeoutCount.incrementAndGet();
+                throw new SQLException("Timed out after " + borrowTimeoutMillis + "ms waiting for a database connection");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+        borrowWaitNanos.addAndGet(System.nanoTime() - start);
+        borrowCount.incrementAndGet();
+
+        try {
+            PooledEntry entry;
+            while ((entry = idle.pollFirst()) != null) {
+                if (isUsable(entry)) {
+                    return wrap(entry);
+                }
+                validationFailures.incrementAndGet();
+                discard(entry);
+            }
+            // Nothing usable is idle, open a fresh connection (this is also how we reconnect)
+            return wrap(new PooledEntry(openPhysical()));
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private boolean isUsable(PooledEntry entry) {
+        try {
+            if (entry.connection.isClosed()) {
+                return false;
+            }
+            if (System.currentTimeMillis() - entry.lastUsed < VALIDATION_BYPASS_MILLIS) {
+                return true;
+            }
+            return entry.connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private Connection openPhysical() throws SQLException {
+        Connection connection = username == null
+                ? DriverManager.getConnection(url)
+                : DriverManager.getConnection(url, username, password);
+        if (initializer != null) {
+            try {
+                initializer.apply(connection);
+            } catch (SQLException e) {
+                connection.close();
+                throw e;
+            }
+        }
+        openConnections.incrementAndGet();
+        createdCount.incrementAndGet();
+        return connection;
+    }
+
+    private void discard(PooledEntry entry) {
+        openConnections.decrementAndGet();
+        entry.statements.close();
+        try {
+            entry.connection.close();
+        } catch (SQLException ignored) {
+            // Already broken
+        }
+    }
+
+    private void release(PooledEntry entry) {
+        try {
+            boolean healthy = !entry.connection.isClosed();
+            if (healthy && !entry.connection.getAutoCommit()) {
+                // Never hand out a connection with a half finished transaction
+                entry.connection.rollback();
+                entry.connection.setAutoCommit(true);
+            }
+            if (healthy && !closed) {
+                entry.lastUsed = System.currentTimeMillis();
+                idle.offerFirst(entry);
+            } else {
+                discard(entry);
+            }
+        } catch (SQLException e) {
+            discard(entry);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private Connection wrap(PooledEntry entry) {
+        return (Connection) Proxy.newProxyInstance(
+                ConnectionPool.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new BorrowedConnection(entry));
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public int getActiveCount() {
+        return maxSize - permits.availablePermits();
+    }
+
+    public int getIdleCount() {
+        return idle.size();
+    }
+
+    public int getOpenCount() {
+        return openConnections.get();
+    }
+
+    public long getBorrowCount() {
+        return borrowCount.get();
+    }
+
+    public double getAverageWaitMillis() {
+        long borrows = borrowCount.get();
+        return borrows == 0 ? 0 : borrowWaitNanos.get() / 1_000_000.0 / borrows;
+    }
+
+    public long getCreatedCount() {
+        return createdCount.get();
+    }
+
+    public long getValidationFailures() {
+        return validationFailures.get();
+    }
+
+    public long getTimeoutCount() {
+        return timeoutCount.get();
+    }
+
+    public StatementCache.Stats getStatementStats() {
+        return statementStats;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        PooledEntry entry;
+        while ((entry = idle.pollFirst()) != null) {
+            discard(entry);
+        }
+        if (getActiveCount() > 0) {
+            logger.warning("Closing connection pool with " + getActiveCount() + " connection(s) still in use");
+        }
+    }
+
+    private final class PooledEntry {
+        private final Connection connection;
+        private final StatementCache statements;
+        private long lastUsed;
+
+        private PooledEntry(Connection connection) {
+            this.connection = connection;
+            this.statements = new StatementCache(connection, STATEMENT_CACHE_SIZE, statementStats);
+            this.lastUsed = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * Delegates to the physical connection until closed, then gives it back to the pool.
+     */
+    private final class BorrowedConnection implements InvocationHandler {
+        private final PooledEntry entry;
+        private boolean returned = false;
+
+        private BorrowedConnection(PooledEntry entry) {
+            this.entry = entry;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!returned) {
+                        returned = true;
+                        release(entry);
+                    }
+                    return null;
+                case "isClosed":
+                    return returned || entry.connection.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled" + entry.connection;
+                default:
+                    break;
+            }
+            if (returned) {
+                throw new SQLException("Connection has already been returned to the pool");
+            }
+            if (StatementCache.isPrepareBySql(method, args)) {
+                return entry.statements.prepare((String) args[0]);
+            }
+            try {
+                return method.invoke(entry.connection, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
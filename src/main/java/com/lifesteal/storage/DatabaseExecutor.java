@@ -0,0 +1,86 @@
+package com.lifesteal.storage;
+
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+
+/**
+ * Dedicated I/O thread for database work.
+ * Tasks run one at a time in submission order, so a write followed by a read
+ * of the same data always sees the write. Results can be brought back to the
+ * server thread with {@link #mainThread()}.
+ */
+public class DatabaseExecutor implements Executor {
+    private final Plugin plugin;
+    private final ExecutorService executor;
+    private final Executor mainThread;
+
+    public DatabaseExecutor(Plugin plugin) {
+        this.plugin = plugin;
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "LifeSteal-Database");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.mainThread = task -> {
+            if (Bukkit.isPrimaryThread()) {
+                task.run();
+            } else if (plugin.isEnabled()) {
+                Bukkit.getScheduler().runTask(plugin, task);
+            }
+        };
+    }
+
+    public <T> CompletableFuture<T> supply(Supplier<T> task) {
+        return CompletableFuture.supplyAsync(task, this).whenComplete(this::logFailure);
+    }
+
+    public CompletableFuture<Void> run(Runnable task) {
+        return CompletableFuture.runAsync(task, this).whenComplete(this::logFailure);
+    }
+
+    /**
+     * Executor that runs callbacks on the server thread, e.g.
+     * {@code db.getAlliesAsync(uuid).thenAcceptAsync(allies -> ..., executor.mainThread())}.
+     * Callbacks are dropped once the plugin has been disabled.
+     */
+    public Executor mainThread() {
+        return mainThread;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        executor.execute(command);
+    }
+
+    /**
+     * Stops accepting work and waits for queued writes to finish.
+     */
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                plugin.getLogger().severe("Timed out waiting for pending database writes to finish!");
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            executor.shutdownNow();
+        }
+    }
+
+    private void logFailure(Object result, Throwable error) {
+        if (error != null) {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            plugin.getLogger().log(Level.SEVERE, "Database task failed", cause);
+        }
+    }
+}
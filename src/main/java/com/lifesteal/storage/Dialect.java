@@ -0,0 +1,13 @@
+package com.lifesteal.storage;
+
+/**
+ * SQL flavour of the configured storage backend.
+ */
+public enum Dialect {
+    SQLITE,
+    MYSQL;
+
+    public static Dialect fromStorageType(String storageType) {
+        return storageType.equalsIgnoreCase("mysql") ? MYSQL : SQLITE;
+    }
+}
@@ -0,0 +1,28 @@
+package com.lifesteal.storage;
+
+import java.util.UUID;
+
+/**
+ * Outcome of moving hearts from a victim to a killer.
+ * Both values are already clamped to the configured minimum and maximum.
+ */
+public class HeartTransfer {
+    public final UUID victim;
+    public final UUID killer;
+    public final int victimHearts;
+    public final int killerHearts;
+
+    public HeartTransfer(UUID victim, UUID killer, int victimHearts, int killerHearts) {
+        this.victim = victim;
+        this.killer = killer;
+        this.victimHearts = victimHearts;
+        this.killerHearts = killerHearts;
+    }
+
+    public static HeartTransfer between(UUID victim, int victimCurrent, UUID killer, int killerCurrent,
+                                 int amount, int minHearts, int maxHearts) {
+        return new HeartTransfer(victim, killer,
+                Math.max(victimCurrent - amount, minHearts),
+                Math.min(killerCurrent + amount, maxHearts));
+    }
+}
@@ -0,0 +1,489 @@
+package com.lifesteal.storage;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletionException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Shared JDBC implementation. Subclasses open the connections for their database;
+ * all SQL comes from a {@link SqlCatalog} built once for the dialect.
+ */
+public abstract class JdbcPlayerStore implements PlayerStore {
+    protected final Logger logger;
+    protected final Dialect dialect;
+    protected final SqlCatalog queries;
+    protected final long connectionTimeout;
+    private final boolean compactKeys;
+
+    protected ConnectionPool pool;
+    protected SqliteWriter writer;
+    private int schemaVersion;
+    private volatile KeyFormat keys = KeyFormat.TEXT;
+
+    protected JdbcPlayerStore(Logger logger, Dialect dialect, long connectionTimeout, boolean compactKeys) {
+        this.logger = logger;
+        this.dialect = dialect;
+        this.queries = new SqlCatalog(dialect);
+        this.connectionTimeout = connectionTimeout;
+        this.compactKeys = compactKeys;
+    }
+
+    /**
+     * Creates the pool (and writer, if any) and checks that the database is reachable.
+     */
+    protected abstract void connect() throws SQLException;
+
+    @Override
+    public final void open() throws SQLException {
+        connect();
+        try (Connection connection = pool.getConnection()) {
+            schemaVersion = new MigrationRunner(logger, dialect).migrate(connection, Migrations.all());
+            logger.info("Database schema is at version " + schemaVersion);
+            KeyFormat wanted = compactKeys ? KeyFormat.BINARY : KeyFormat.TEXT;
+            keys = new KeyFormatConverter(logger, dialect).ensure(connection, wanted);
+        }
+    }
+
+    @Override
+    public int getHearts(UUID uuid, int defaultHearts) throws SQLException {
+        try (Connection connection = getConnection();
+             PreparedStatement stmt = queries.selectHearts.prepare(connection)) {
+            keys.set(stmt, 1, uuid);
+            ResultSet rs = stmt.executeQuery();
+            if (rs.next()) {
+                return rs.getInt("hearts");
+            }
+        }
+        return defaultHearts;
+    }
+
+    @Override
+    public void setHearts(UUID uuid, int hearts) {
+        write("Failed to set hearts for " + uuid, connection -> {
+            try (PreparedStatement stmt = queries.upsertHearts.prepare(connection)) {
+                keys.set(stmt, 1, uuid);
+                stmt.setInt(2, hearts);
+                return stmt.executeUpdate();
+            }
+        });
+    }
+
+    @Override
+    public void setHearts(Map<UUID, Integer> hearts) throws SQLException {
+        transaction(connection -> {
+            try (PreparedStatement stmt = queries.upsertHearts.prepare(connection)) {
+                for (Map.Entry<UUID, Integer> entry : hearts.entrySet()) {
+                    keys.set(stmt, 1, entry.getKey());
+                    stmt.setInt(2, entry.getValue());
+                    stmt.addBatch();
+                }
+                return stmt.executeBatch();
+            }
+        });
+    }
+
+    /**
+     * Both rows are read and rewritten in one transaction, so concurrent kills cannot
+     * overwrite each other's result. On MySQL the read locks the rows (FOR UPDATE).
+     */
+    @Override
+    public HeartTransfer transferHearts(UUID victim, UUID killer, int amount,
+                                        int defaultHearts, int minHearts, int maxHearts) throws SQLException {
+        return transaction(connection -> {
+            int victimCurrent = defaultHearts;
+            int killerCurrent = defaultHearts;
+            try (PreparedStatement stmt = queries.selectHeartsForTransfer.prepare(connection)) {
+                keys.set(stmt, 1, victim);
+                keys.set(stmt, 2, killer);
+                ResultSet rs = stmt.executeQuery();
+                while (rs.next()) {
+                    UUID uuid = keys.get(rs, "uuid");
+                    if (uuid.equals(victim)) {
+                        victimCurrent = rs.getInt("hearts");
+                    } else {
+                        killerCurrent = rs.getInt("hearts");
+                    }
+                }
+            }
+
+            HeartTransfer transfer = HeartTransfer.between(victim, victimCurrent, killer, killerCurrent, amount, minHearts, maxHearts);
+            try (PreparedStatement stmt = queries.upsertHearts.prepare(connection)) {
+                keys.set(stmt, 1, victim);
+                stmt.setInt(2, transfer.victimHearts);
+                stmt.addBatch();
+                keys.set(stmt, 1, killer);
+                stmt.setInt(2, transfer.killerHearts);
+                stmt.addBatch();
+                stmt.executeBatch();
+            }
+            return transfer;
+        });
+    }
+
+    @Override
+    public void addAlly(UUID player, UUID ally) {
+        write("Failed to add ally relationship", connection -> {
+            try (PreparedStatement stmt = queries.insertAlly.prepare(connection)) {
+                // Add both directions for mutual alliance
+                keys.set(stmt, 1, player);
+                keys.set(stmt, 2, ally);
+                stmt.executeUpdate();
+
+                keys.set(stmt, 1, ally);
+                keys.set(stmt, 2, player);
+                return stmt.executeUpdate();
+            }
+        });
+    }
+
+    @Override
+    public void removeAlly(UUID player, UUID ally) {
+        write("Failed to remove ally relationship", connection -> {
+            try (PreparedStatement stmt = queries.deleteAlly.prepare(connection)) {
+                // One primary key delete per direction instead of an OR that defeats the index
+                keys.set(stmt, 1, player);
+                keys.set(stmt, 2, ally);
+                stmt.addBatch();
+                keys.set(stmt, 1, ally);
+                keys.set(stmt, 2, player);
+                stmt.addBatch();
+                return stmt.executeBatch();
+            }
+        });
+    }
+
+    @Override
+    public List<UUID> getAllies(UUID player) throws SQLException {
+        List<UUID> allies = new ArrayList<>();
+        try (Connection connection = getConnection();
+             PreparedStatement stmt = queries.selectAllies.prepare(connection)) {
+            keys.set(stmt, 1, player);
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                allies.add(keys.get(rs, "ally_uuid"));
+            }
+        }
+        return allies;
+    }
+
+    @Override
+    public Set<UUID> getAlliesAmong(UUID player, Collection<UUID> candidates) throws SQLException {
+        Set<UUID> allies = new HashSet<>();
+        if (candidates.isEmpty()) {
+            return allies;
+        }
+        List<UUID> ids = new ArrayList<>(candidates);
+        try (Connection connection = getConnection();
+             PreparedStatement stmt = queries.selectAlliesAmong.prepare(connection)) {
+            for (int from = 0; from < ids.size(); from += SqlCatalog.ALLY_BATCH_SIZE) {
+                keys.set(stmt, 1, player);
+                for (int i = 0; i < SqlCatalog.ALLY_BATCH_SIZE; i++) {
+                    // Pad the last batch with a candidate that is already in it
+                    int index = Math.min(from + i, ids.size() - 1);
+                    keys.set(stmt, i + 2, ids.get(index));
+                }
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        allies.add(keys.get(rs, "ally_uuid"));
+                    }
+                }
+            }
+        }
+        return allies;
+    }
+
+    @Override
+    public Map<UUID, List<UUID>> getAllAllies() throws SQLException {
+        Map<UUID, List<UUID>> allies = new HashMap<>();
+        try (Connection connection = getConnection();
+             PreparedStatement stmt = queries.selectAllAllies.prepare(connection)) {
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                allies.computeIfAbsent(keys.get(rs, "player_uuid"), k -> new ArrayList<>()).add(keys.get(rs, "ally_uuid"));
+            }
+        }
+        return allies;
+    }
+
+    @Override
+    public void savePlayerName(UUID uuid, String name, long lastSeen) {
+        write("Failed to save name of " + uuid, connection -> {
+            try (PreparedStatement stmt = queries.upsertPlayerName.prepare(connection)) {
+                keys.set(stmt, 1, uuid);
+                stmt.setString(2, name);
+                stmt.setString(3, name.toLowerCase(Locale.ROOT));
+                stmt.setLong(4, lastSeen);
+                return stmt.executeUpdate();
+            }
+        });
+    }
+
+    @Override
+    public String getPlayerName(UUID uuid) throws SQLException {
+        try (Connection connection = getConnection();
+             PreparedStatement stmt = queries.selectPlayerName.prepare(connection)) {
+            keys.set(stmt, 1, uuid);
+            ResultSet rs = stmt.executeQuery();
+            if (rs.next()) {
+                return rs.getString("name");
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public UUID getPlayerIdByName(String name) throws SQLException {
+        try (Connection connection = getConnection();
+             PreparedStatement stmt = queries.selectPlayerIdByName.prepare(connection)) {
+            stmt.setString(1, name.toLowerCase(Locale.ROOT));
+            ResultSet rs = stmt.executeQuery();
+            if (rs.next()) {
+                return keys.get(rs, "uuid");
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void saveWorldBorders(Collection<WorldBorderState> borders, Collection<String> removedWorlds) {
+        if (borders.isEmpty() && removedWorlds.isEmpty()) {
+            return;
+        }
+        write("Failed to save world border data", connection -> {
+            int changed = 0;
+            if (!borders.isEmpty()) {
+                try (PreparedStatement stmt = queries.upsertWorldBorder.prepare(connection)) {
+                    for (WorldBorderState border : borders) {
+                        stmt.setString(1, border.world);
+                        stmt.setDouble(2, border.currentSize);
+                        stmt.setDouble(3, border.initialSize);
+                        stmt.setLong(4, border.lastShrinkTime);
+                        stmt.setLong(5, border.nextShrinkTime);
+                        stmt.addBatch();
+                    }
+                    changed += stmt.executeBatch().length;
+                }
+            }
+            if (!removedWorlds.isEmpty()) {
+                try (PreparedStatement stmt = queries.deleteWorldBorder.prepare(connection)) {
+                    for (String world : removedWorlds) {
+                        stmt.setString(1, world);
+                        stmt.addBatch();
+                    }
+                    changed += stmt.executeBatch().length;
+                }
+            }
+            return changed;
+        });
+    }
+
+    @Override
+    public Map<String, WorldBorderState> loadWorldBorders() throws SQLException {
+        Map<String, WorldBorderState> borders = new HashMap<>();
+        try (Connection connection = getConnection();
+             PreparedStatement stmt = queries.selectWorldBorders.prepare(connection)) {
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                String world = rs.getString("world");
+                borders.put(world, new WorldBorderState(world, rs.getDouble("current_size"), rs.getDouble("initial_size"),
+                        rs.getLong("last_shrink_time"), rs.getLong("next_shrink_time")));
+            }
+        }
+        return borders;
+    }
+
+    @Override
+    public void saveCycleTimer(String mode, long nextSwitch) {
+        write("Failed to save cycle timer data", connection -> {
+            try (PreparedStatement stmt = queries.upsertCycleTimer.prepare(connection)) {
+                stmt.setString(1, mode);
+                stmt.setLong(2, nextSwitch);
+                return stmt.executeUpdate();
+            }
+        });
+    }
+
+    @Override
+    public Map<String, Object> loadCycleTimer() throws SQLException {
+        Map<String, Object> data = new HashMap<>();
+        try (Connection connection = getConnection();
+             PreparedStatement stmt = queries.selectCycleTimer.prepare(connection)) {
+            ResultSet rs = stmt.executeQuery();
+            if (rs.next()) {
+                data.put("current_mode", rs.getString("current_mode"));
+                data.put("next_switch", rs.getLong("next_switch"));
+            }
+        }
+        return data;
+    }
+
+    @Override
+    public void saveScheduledEvents(Map<String, Long> deadlines, Collection<String> removed) {
+        if (deadlines.isEmpty() && removed.isEmpty()) {
+            return;
+        }
+        write("Failed to save scheduled events", connection -> {
+            int changed = 0;
+            if (!deadlines.isEmpty()) {
+                try (PreparedStatement stmt = queries.upsertScheduledEvent.prepare(connection)) {
+                    for (Map.Entry<String, Long> entry : deadlines.entrySet()) {
+                        stmt.setString(1, entry.getKey());
+                        stmt.setLong(2, entry.getValue());
+                        stmt.addBatch();
+                    }
+                    changed += stmt.executeBatch().length;
+                }
+            }
+            if (!removed.isEmpty()) {
+                try (PreparedStatement stmt = queries.deleteScheduledEvent.prepare(connection)) {
+                    for (String key : removed) {
+                        stmt.setString(1, key);
+                        stmt.addBatch();
+                    }
+                    changed += stmt.executeBatch().length;
+                }
+            }
+            return changed;
+        });
+    }
+
+    @Override
+    public Map<String, Long> loadScheduledEvents() throws SQLException {
+        Map<String, Long> deadlines = new HashMap<>();
+        try (Connection connection = getConnection();
+             PreparedStatement stmt = queries.selectScheduledEvents.prepare(connection)) {
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                deadlines.put(rs.getString("event_key"), rs.getLong("deadline"));
+            }
+        }
+        return deadlines;
+    }
+
+    /**
+     * Applies a mutation. With a writer it is queued and committed together with other
+     * pending writes, otherwise it runs right away on a pooled connection.
+     * Failures are logged with the given message.
+     */
+    protected void write(String failureMessage, SqlWork<?> work) {
+        if (writer != null) {
+            writer.submit(work).exceptionally(e -> {
+                logger.log(Level.SEVERE, failureMessage, e);
+                return null;
+            });
+            return;
+        }
+        try (Connection connection = pool.getConnection()) {
+            work.apply(connection);
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, failureMessage, e);
+        }
+    }
+
+    /**
+     * Runs work in a single transaction and waits for it to commit.
+     */
+    protected <T> T transaction(SqlWork<T> work) throws SQLException {
+        if (writer != null) {
+            try {
+                return writer.submit(work).join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof SQLException) {
+                    throw (SQLException) e.getCause();
+                }
+                throw new SQLException(e.getCause());
+            }
+        }
+        try (Connection connection = pool.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                T result = work.apply(connection);
+                connection.commit();
+                return result;
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        }
+    }
+
+    /**
+     * Borrows a connection for reads. Callers must close it to give it back.
+     * With a writer this first waits for queued writes, so reads see them.
+     */
+    protected Connection getConnection() throws SQLException {
+        if (writer != null) {
+            writer.awaitPending();
+        }
+        return pool.getConnection();
+    }
+
+    /**
+     * Query plans for every catalog statement, by statement name.
+     * Statements that cannot be explained report the error instead.
+     */
+    public Map<String, List<String>> explainQueries() throws SQLException {
+        Map<String, List<String>> plans = new LinkedHashMap<>();
+        QueryPlanner planner = new QueryPlanner(dialect, keys);
+        try (Connection connection = getConnection()) {
+            for (SqlCatalog.Query query : queries.all()) {
+                try {
+                    plans.put(query.name, planner.explain(connection, query));
+                } catch (SQLException e) {
+                    plans.put(query.name, Collections.singletonList("error: " + e.getMessage()));
+                }
+            }
+        }
+        return plans;
+    }
+
+    public ConnectionPool getPool() {
+        return pool;
+    }
+
+    /**
+     * The dedicated writer, or null if writes go through the pool.
+     */
+    public SqliteWriter getWriter() {
+        return writer;
+    }
+
+    public Dialect getDialect() {
+        return dialect;
+    }
+
+    public int getSchemaVersion() {
+        return schemaVersion;
+    }
+
+    public KeyFormat getKeyFormat() {
+        return keys;
+    }
+
+    @Override
+    public void close() {
+        if (writer != null) {
+            writer.close();
+        }
+        if (pool != null) {
+            pool.close();
+        }
+    }
+}
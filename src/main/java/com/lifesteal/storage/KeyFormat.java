@@ -0,0 +1,78 @@
+package com.lifesteal.storage;
+
+import java.nio.ByteBuffer;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.UUID;
+
+/**
+ * How player UUIDs are stored in key columns.
+ * TEXT is the original 36 character form, BINARY packs the two longs of the UUID
+ * into 16 bytes (BINARY(16) on MySQL, a BLOB on SQLite), which keeps the indexes
+ * less than half the size and avoids building strings for every row.
+ */
+public enum KeyFormat {
+    TEXT("text") {
+        @Override
+        public void set(PreparedStatement stmt, int index, UUID uuid) throws SQLException {
+            stmt.setString(index, uuid.toString());
+        }
+
+        @Override
+        public UUID get(ResultSet rs, String column) throws SQLException {
+            String value = rs.getString(column);
+            return value == null ? null : UUID.fromString(value);
+        }
+    },
+    BINARY("binary") {
+        @Override
+        public void set(PreparedStatement stmt, int index, UUID uuid) throws SQLException {
+            stmt.setBytes(index, toBytes(uuid));
+        }
+
+        @Override
+        public UUID get(ResultSet rs, String column) throws SQLException {
+            byte[] value = rs.getBytes(column);
+            return value == null ? null : fromBytes(value);
+        }
+    };
+
+    private final String id;
+
+    KeyFormat(String id) {
+        this.id = id;
+    }
+
+    public abstract void set(PreparedStatement stmt, int index, UUID uuid) throws SQLException;
+
+    public abstract UUID get(ResultSet rs, String column) throws SQLException;
+
+    /**
+     * Value stored in storage_meta.
+     */
+    public String getId() {
+        return id;
+    }
+
+    public static KeyFormat fromId(String id) {
+        for (KeyFormat format : values()) {
+            if (format.id.equalsIgnoreCase(id)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Unknown key format: " + id);
+    }
+
+    public static byte[] toBytes(UUID uuid) {
+        return ByteBuffer.allocate(16)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .array();
+    }
+
+    public static UUID fromBytes(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+}
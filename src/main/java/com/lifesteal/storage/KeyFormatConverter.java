@@ -0,0 +1,200 @@
+package com.lifesteal.storage;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+/**
+ * Rewrites every player key column from one {@link KeyFormat} to another, in place,
+ * so indexes and constraints stay as they are.
+ * On SQLite the whole conversion is one transaction. On MySQL the column types are
+ * changed with ALTER TABLE, which commits implicitly, so every step only touches rows
+ * that are still in the old format and an interrupted conversion simply resumes on
+ * the next start. storage_meta is only updated once all tables are done.
+ * Tables that migrations add later are created with text keys, so on MySQL their
+ * columns are also brought in line with the stored format on every start.
+ */
+public class KeyFormatConverter {
+    private static final int PAGE_SIZE = 1000;
+
+    // Every column that stores a player UUID, by table
+    private static final Map<String, String[]> KEY_COLUMNS = new LinkedHashMap<>();
+
+    static {
+        KEY_COLUMNS.put("players", new String[]{"uuid"});
+        KEY_COLUMNS.put("allies", new String[]{"player_uuid", "ally_uuid"});
+        KEY_COLUMNS.put("player_names", new String[]{"uuid"});
+    }
+
+    private final Logger logger;
+    private final Dialect dialect;
+
+    public KeyFormatConverter(Logger logger, Dialect dialect) {
+        this.logger = logger;
+        this.dialect = dialect;
+    }
+
+    /**
+     * Makes sure the stored keys use the wanted format, converting them if needed.
+     * Returns the format the data is in afterwards.
+     */
+    public KeyFormat ensure(Connection connection, KeyFormat wanted) throws SQLException {
+        String stored = StorageMeta.get(connection, StorageMeta.KEY_FORMAT);
+        KeyFormat current = stored == null ? KeyFormat.TEXT : KeyFormat.fromId(stored);
+        if (current == wanted) {
+            if (dialect == Dialect.MYSQL) {
+                Map<String, String[]> stale = findStaleTables(connection, current);
+                if (!stale.isEmpty()) {
+                    logger.info("Converting player keys in " + String.join(", ", stale.keySet()) + " to " + current.getId());
+                    convertMySql(connection, current, stale);
+                }
+            }
+            return current;
+        }
+
+        logger.info("Converting player keys from " + current.getId() + " to " + wanted.getId() + ", this may take a moment...");
+        long start = System.currentTimeMillis();
+        if (dialect == Dialect.MYSQL) {
+            convertMySql(connection, wanted, KEY_COLUMNS);
+            StorageMeta.set(connection, dialect, StorageMeta.KEY_FORMAT, wanted.getId());
+        } else {
+            connection.setAutoCommit(false);
+            try {
+                convertSqlite(connection, wanted);
+                StorageMeta.set(connection, dialect, StorageMeta.KEY_FORMAT, wanted.getId());
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        }
+        logger.info("Converted player keys to " + wanted.getId() + " in " + (System.currentTimeMillis() - start) + "ms");
+        return wanted;
+    }
+
+    /**
+     * Key tables whose column types do not match the format, such as a table
+     * created after the keys were converted.
+     */
+    private Map<String, String[]> findStaleTables(Connection connection, KeyFormat format) throws SQLException {
+        String expected = format == KeyFormat.BINARY ? "binary" : "varchar";
+        Map<String, String[]> stale = new LinkedHashMap<>();
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "SELECT data_type FROM information_schema.columns WHERE table_schema = DATABASE() AND table_name = ? AND column_name = ?")) {
+            for (Map.Entry<String, String[]> table : KEY_COLUMNS.entrySet()) {
+                for (String column : table.getValue()) {
+                    stmt.setString(1, table.getKey());
+                    stmt.setString(2, column);
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        if (rs.next() && !expected.equalsIgnoreCase(rs.getString(1))) {
+                            stale.put(table.getKey(), table.getValue());
+                            break;
+                        }
+                    }
+                }
+            }
+        }
+        return stale;
+    }
+
+    private void convertMySql(Connection connection, KeyFormat wanted, Map<String, String[]> tables) throws SQLException {
+        String finalType = wanted == KeyFormat.BINARY ? "BINARY(16)" : "VARCHAR(36)";
+        try (Statement stmt = connection.createStatement()) {
+            // Key columns are referenced by foreign keys, which would block the type changes
+            stmt.execute("SET FOREIGN_KEY_CHECKS = 0");
+            try {
+                for (Map.Entry<String, String[]> table : tables.entrySet()) {
+                    // VARBINARY(36) holds both forms, so values can be rewritten in between
+                    stmt.executeUpdate(modifyColumns(table.getKey(), table.getValue(), "VARBINARY(36)"));
+                    for (String column : table.getValue()) {
+                        if (wanted == KeyFormat.BINARY) {
+                            stmt.executeUpdate("UPDATE " + table.getKey() + " SET " + column + " = UNHEX(REPLACE(" + column + ", '-', '')) " +
+                                    "WHERE LENGTH(" + column + ") = 36");
+                        } else {
+                            stmt.executeUpdate("UPDATE " + table.getKey() + " SET " + column + " = LOWER(" +
+                                    "INSERT(INSERT(INSERT(INSERT(HEX(" + column + "), 21, 0, '-'), 17, 0, '-'), 13, 0, '-'), 9, 0, '-')) " +
+                                    "WHERE LENGTH(" + column + ") = 16");
+                        }
+                    }
+                    stmt.executeUpdate(modifyColumns(table.getKey(), table.getValue(), finalType));
+                }
+            } finally {
+                stmt.execute("SET FOREIGN_KEY_CHECKS = 1");
+            }
+        }
+    }
+
+    private String modifyColumns(String table, String[] columns, String type) {
+        StringBuilder sql = new StringBuilder("ALTER TABLE ").append(table);
+        for (int i = 0; i < columns.length; i++) {
+            sql.append(i == 0 ? " " : ", ").append("MODIFY ").append(columns[i]).append(' ').append(type).append(" NOT NULL");
+        }
+        return sql.toString();
+    }
+
+    /**
+     * SQLite columns accept any value type, so rows are rewritten one page at a time
+     * by rowid without touching the table definitions.
+     */
+    private void convertSqlite(Connection connection, KeyFormat wanted) throws SQLException {
+        for (Map.Entry<String, String[]> table : KEY_COLUMNS.entrySet()) {
+            String[] columns = table.getValue();
+            String select = "SELECT rowid, " + String.join(", ", columns) + " FROM " + table.getKey() +
+                    " WHERE rowid > ? ORDER BY rowid LIMIT " + PAGE_SIZE;
+            StringBuilder update = new StringBuilder("UPDATE ").append(table.getKey()).append(" SET ");
+            for (int i = 0; i < columns.length; i++) {
+                update.append(i == 0 ? "" : ", ").append(columns[i]).append(" = ?");
+            }
+            update.append(" WHERE rowid = ?");
+
+            try (PreparedStatement selectStmt = connection.prepareStatement(select);
+                 PreparedStatement updateStmt = connection.prepareStatement(update.toString())) {
+                long lastRowId = 0;
+                while (true) {
+                    List<Object[]> page = new ArrayList<>();
+                    selectStmt.setLong(1, lastRowId);
+                    try (ResultSet rs = selectStmt.executeQuery()) {
+                        while (rs.next()) {
+                            Object[] row = new Object[columns.length + 1];
+                            row[0] = rs.getLong(1);
+                            for (int i = 0; i < columns.length; i++) {
+                                row[i + 1] = rs.getObject(i + 2);
+                            }
+                            page.add(row);
+                        }
+                    }
+                    if (page.isEmpty()) {
+                        break;
+                    }
+                    for (Object[] row : page) {
+                        lastRowId = (long) row[0];
+                        for (int i = 0; i < columns.length; i++) {
+                            UUID uuid = decode(row[i + 1]);
+                            wanted.set(updateStmt, i + 1, uuid);
+                        }
+                        updateStmt.setLong(columns.length + 1, lastRowId);
+                        updateStmt.addBatch();
+                    }
+                    updateStmt.executeBatch();
+                }
+            }
+        }
+    }
+
+    private UUID decode(Object value) {
+        if (value instanceof byte[]) {
+            return KeyFormat.fromBytes((byte[]) value);
+        }
+        return UUID.fromString(value.toString());
+    }
+}
@@ -0,0 +1,162 @@
+package com.lifesteal.storage;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps everything in memory and persists nothing. Meant for test servers and
+ * for comparing the other backends against a store without any I/O.
+ */
+public class MemoryPlayerStore implements PlayerStore {
+    private final Map<UUID, Integer> hearts = new ConcurrentHashMap<>();
+    private final Map<UUID, Set<UUID>> allies = new ConcurrentHashMap<>();
+    private final Map<UUID, String> names = new HashMap<>();
+    private final Map<String, UUID> idsByName = new HashMap<>();
+    private final Map<String, WorldBorderState> worldBorders = new ConcurrentHashMap<>();
+    private volatile Map<String, Object> cycleTimer = Collections.emptyMap();
+    private final Map<String, Long> scheduledEvents = new ConcurrentHashMap<>();
+
+    @Override
+    public void open() {
+    }
+
+    @Override
+    public String getName() {
+        return "memory";
+    }
+
+    @Override
+    public int getHearts(UUID uuid, int defaultHearts) {
+        return hearts.getOrDefault(uuid, defaultHearts);
+    }
+
+    @Override
+    public synchronized void setHearts(UUID uuid, int value) {
+        hearts.put(uuid, value);
+    }
+
+    @Override
+    public synchronized void setHearts(Map<UUID, Integer> values) {
+        hearts.putAll(values);
+    }
+
+    @Override
+    public synchronized HeartTransfer transferHearts(UUID victim, UUID killer, int amount,
+                                                     int defaultHearts, int minHearts, int maxHearts) {
+        HeartTransfer transfer = HeartTransfer.between(victim, getHearts(victim, defaultHearts),
+                killer, getHearts(killer, defaultHearts), amount, minHearts, maxHearts);
+        hearts.put(victim, transfer.victimHearts);
+        hearts.put(killer, transfer.killerHearts);
+        return transfer;
+    }
+
+    @Override
+    public void addAlly(UUID player, UUID ally) {
+        allies.computeIfAbsent(player, k -> ConcurrentHashMap.newKeySet()).add(ally);
+        allies.computeIfAbsent(ally, k -> ConcurrentHashMap.newKeySet()).add(player);
+    }
+
+    @Override
+    public void removeAlly(UUID player, UUID ally) {
+        allies.getOrDefault(player, Collections.emptySet()).remove(ally);
+        allies.getOrDefault(ally, Collections.emptySet()).remove(player);
+    }
+
+    @Override
+    public List<UUID> getAllies(UUID player) {
+        return new ArrayList<>(allies.getOrDefault(player, Collections.emptySet()));
+    }
+
+    @Override
+    public Set<UUID> getAlliesAmong(UUID player, Collection<UUID> candidates) {
+        Set<UUID> result = new HashSet<>();
+        Set<UUID> playerAllies = allies.getOrDefault(player, Collections.emptySet());
+        for (UUID candidate : candidates) {
+            if (playerAllies.contains(candidate)) {
+                result.add(candidate);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Map<UUID, List<UUID>> getAllAllies() {
+        Map<UUID, List<UUID>> copy = new HashMap<>();
+        for (Map.Entry<UUID, Set<UUID>> entry : allies.entrySet()) {
+            if (!entry.getValue().isEmpty()) {
+                copy.put(entry.getKey(), new ArrayList<>(entry.getValue()));
+            }
+        }
+        return copy;
+    }
+
+    @Override
+    public synchronized void savePlayerName(UUID uuid, String name, long lastSeen) {
+        names.put(uuid, name);
+        idsByName.put(name.toLowerCase(Locale.ROOT), uuid);
+    }
+
+    @Override
+    public synchronized String getPlayerName(UUID uuid) {
+        return names.get(uuid);
+    }
+
+    @Override
+    public synchronized UUID getPlayerIdByName(String name) {
+        return idsByName.get(name.toLowerCase(Locale.ROOT));
+    }
+
+    @Override
+    public void saveWorldBorders(Collection<WorldBorderState> borders, Collection<String> removedWorlds) {
+        for (WorldBorderState border : borders) {
+            worldBorders.put(border.world, border);
+        }
+        for (String world : removedWorlds) {
+            worldBorders.remove(world);
+        }
+    }
+
+    @Override
+    public Map<String, WorldBorderState> loadWorldBorders() {
+        return new HashMap<>(worldBorders);
+    }
+
+    @Override
+    public void saveCycleTimer(String mode, long nextSwitch) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("current_mode", mode);
+        data.put("next_switch", nextSwitch);
+        cycleTimer = data;
+    }
+
+    @Override
+    public Map<String, Object> loadCycleTimer() {
+        return new HashMap<>(cycleTimer);
+    }
+
+    @Override
+    public void saveScheduledEvents(Map<String, Long> deadlines, Collection<String> removed) {
+        scheduledEvents.putAll(deadlines);
+        for (String key : removed) {
+            scheduledEvents.remove(key);
+        }
+    }
+
+    @Override
+    public Map<String, Long> loadScheduledEvents() {
+        return new HashMap<>(scheduledEvents);
+    }
+
+    @Override
+    public void close() {
+    }
+}
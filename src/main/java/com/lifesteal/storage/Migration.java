@@ -0,0 +1,37 @@
+package com.lifesteal.storage;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * One numbered change to the database schema. Versions are applied in ascending
+ * order and never run twice; once released, a migration must not be edited.
+ */
+public final class Migration {
+    @FunctionalInterface
+    public interface Step {
+        void apply(Connection connection, Dialect dialect) throws SQLException;
+    }
+
+    private final int version;
+    private final String description;
+    private final Step step;
+
+    public Migration(int version, String description, Step step) {
+        this.version = version;
+        this.description = description;
+        this.step = step;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    void apply(Connection connection, Dialect dialect) throws SQLException {
+        step.apply(connection, dialect);
+    }
+}
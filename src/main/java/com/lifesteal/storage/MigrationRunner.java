@@ -0,0 +1,85 @@
+package com.lifesteal.storage;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Brings the schema up to date using the schema_version table.
+ * Each pending migration runs in its own transaction together with the row that
+ * records it, so a failed migration leaves the version unchanged and is retried
+ * on the next start. SQLite rolls back DDL as well; MySQL commits DDL implicitly,
+ * so MySQL migrations are written to be safe to re-run.
+ */
+public class MigrationRunner {
+    private final Logger logger;
+    private final Dialect dialect;
+
+    public MigrationRunner(Logger logger, Dialect dialect) {
+        this.logger = logger;
+        this.dialect = dialect;
+    }
+
+    /**
+     * Applies every migration newer than the stored version and returns the resulting version.
+     */
+    public int migrate(Connection connection, List<Migration> migrations) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS schema_version (
+                    version INT PRIMARY KEY,
+                    description VARCHAR(255) NOT NULL,
+                    installed_at BIGINT NOT NULL
+                )
+            """);
+        }
+
+        int current = getVersion(connection);
+        List<Migration> ordered = new ArrayList<>(migrations);
+        ordered.sort(Comparator.comparingInt(Migration::getVersion));
+        int latest = ordered.isEmpty() ? 0 : ordered.get(ordered.size() - 1).getVersion();
+        if (current > latest) {
+            logger.warning("Database schema version " + current + " is newer than this plugin supports (" + latest + ")!");
+            return current;
+        }
+
+        for (Migration migration : ordered) {
+            if (migration.getVersion() <= current) {
+                continue;
+            }
+            connection.setAutoCommit(false);
+            try {
+                migration.apply(connection, dialect);
+                try (PreparedStatement stmt = connection.prepareStatement(
+                        "INSERT INTO schema_version (version, description, installed_at) VALUES (?, ?, ?)")) {
+                    stmt.setInt(1, migration.getVersion());
+                    stmt.setString(2, migration.getDescription());
+                    stmt.setLong(3, System.currentTimeMillis());
+                    stmt.executeUpdate();
+                }
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw new SQLException("Schema migration " + migration.getVersion() + " (" + migration.getDescription() + ") failed", e);
+            } finally {
+                connection.setAutoCommit(true);
+            }
+            current = migration.getVersion();
+            logger.info("Applied schema migration " + current + ": " + migration.getDescription());
+        }
+        return current;
+    }
+
+    public int getVersion(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT MAX(version) FROM schema_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.lifesteal.storage;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Every schema migration, in order. Append new entries with the next version number.
+ */
+public final class Migrations {
+    private Migrations() {
+    }
+
+    public static List<Migration> all() {
+        return List.of(
+            new Migration(1, "Create base tables", Migrations::createBaseTables),
+            new Migration(2, "Create storage_meta table", Migrations::createStorageMeta),
+            new Migration(3, "Index ally requests by receiver and timestamp", Migrations::indexAllyRequests),
+            new Migration(4, "Drop ally_requests table", Migrations::dropAllyRequests),
+            new Migration(5, "Create player_names table", Migrations::createPlayerNames),
+            new Migration(6, "Keep world borders per world", Migrations::createWorldBorders),
+            new Migration(7, "Create scheduled_events table", Migrations::createScheduledEvents)
+        );
+    }
+
+    /**
+     * The tables as they existed before versioning. Uses IF NOT EXISTS so that
+     * installs created by older releases simply adopt version 1.
+     */
+    private static void createBaseTables(Connection connection, Dialect dialect) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS players (
+                    uuid VARCHAR(36) PRIMARY KEY,
+                    hearts INT NOT NULL DEFAULT 10
+                )
+            """);
+
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS allies (
+                    player_uuid VARCHAR(36),
+                    ally_uuid VARCHAR(36),
+                    PRIMARY KEY (player_uuid, ally_uuid),
+                    FOREIGN KEY (player_uuid) REFERENCES players(uuid),
+                    FOREIGN KEY (ally_uuid) REFERENCES players(uuid)
+                )
+            """);
+
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS ally_requests (
+                    sender_uuid VARCHAR(36),
+                    receiver_uuid VARCHAR(36),
+                    timestamp BIGINT NOT NULL,
+                    PRIMARY KEY (sender_uuid, receiver_uuid),
+                    FOREIGN KEY (sender_uuid) REFERENCES players(uuid),
+                    FOREIGN KEY (receiver_uuid) REFERENCES players(uuid)
+                )
+            """);
+
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS world_border (
+                    id INT PRIMARY KEY DEFAULT 1,
+                    current_size DOUBLE NOT NULL,
+                    initial_size DOUBLE NOT NULL,
+                    last_shrink_time BIGINT NOT NULL,
+                    next_shrink_time BIGINT NOT NULL,
+                    CHECK (id = 1)
+                )
+            """);
+
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS cycle_timer (
+                    id INT PRIMARY KEY DEFAULT 1,
+                    current_mode VARCHAR(8) NOT NULL,
+                    next_switch BIGINT NOT NULL,
+                    CHECK (id = 1)
+                )
+            """);
+        }
+    }
+
+    private static void createStorageMeta(Connection connection, Dialect dialect) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS storage_meta (
+                    meta_key VARCHAR(64) PRIMARY KEY,
+                    meta_value VARCHAR(255) NOT NULL
+                )
+            """);
+        }
+        // Everything written before this migration used text keys
+        StorageMeta.set(connection, dialect, StorageMeta.KEY_FORMAT, KeyFormat.TEXT.getId());
+    }
+
+    private static void indexAllyRequests(Connection connection, Dialect dialect) throws SQLException {
+        // Covers pending request lookups by receiver without touching the table
+        createIndex(connection, dialect, "idx_ally_requests_receiver", "ally_requests", "receiver_uuid, sender_uuid");
+        // Lets the timeout cleanup find expired requests without a full scan
+        createIndex(connection, dialect, "idx_ally_requests_timestamp", "ally_requests", "timestamp");
+    }
+
+    /**
+     * Pending ally requests are kept in memory now. Their indexes go with the table.
+     */
+    private static void dropAllyRequests(Connection connection, Dialect dialect) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("DROP TABLE IF EXISTS ally_requests");
+        }
+    }
+
+    /**
+     * Last known name of every player that joined. A name can move to another
+     * account, so lookups by name take the most recently seen owner.
+     */
+    private static void createPlayerNames(Connection connection, Dialect dialect) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS player_names (
+                    uuid VARCHAR(36) PRIMARY KEY,
+                    name VARCHAR(16) NOT NULL,
+                    name_lower VARCHAR(16) NOT NULL,
+                    last_seen BIGINT NOT NULL
+                )
+            """);
+        }
+        createIndex(connection, dialect, "idx_player_names_name", "player_names", "name_lower, last_seen");
+    }
+
+    /**
+     * Replaces the single world_border row with one row per world. The old row
+     * is kept under {@link WorldBorderState#LEGACY_WORLD} for worlds to adopt.
+     */
+    private static void createWorldBorders(Connection connection, Dialect dialect) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS world_borders (
+                    world VARCHAR(64) PRIMARY KEY,
+                    current_size DOUBLE NOT NULL,
+                    initial_size DOUBLE NOT NULL,
+                    last_shrink_time BIGINT NOT NULL,
+                    next_shrink_time BIGINT NOT NULL
+                )
+            """);
+            // Guarded so a MySQL run cut short after the copy or the drop can be repeated
+            if (tableExists(connection, dialect, "world_border")) {
+                stmt.execute("INSERT INTO world_borders (world, current_size, initial_size, last_shrink_time, next_shrink_time) " +
+                        "SELECT '" + WorldBorderState.LEGACY_WORLD + "', current_size, initial_size, last_shrink_time, next_shrink_time FROM world_border " +
+                        "WHERE NOT EXISTS (SELECT 1 FROM world_borders WHERE world = '" + WorldBorderState.LEGACY_WORLD + "')");
+                stmt.execute("DROP TABLE world_border");
+            }
+        }
+    }
+
+    private static boolean tableExists(Connection connection, Dialect dialect, String table) throws SQLException {
+        String sql = dialect == Dialect.MYSQL
+                ? "SELECT 1 FROM information_schema.tables WHERE table_schema = DATABASE() AND table_name = ?"
+                : "SELECT 1 FROM sqlite_master WHERE type = 'table' AND name = ?";
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setString(1, table);
+            return stmt.executeQuery().next();
+        }
+    }
+
+    /**
+     * Pending deadlines of scheduled events, so timers carry over a restart.
+     */
+    private static void createScheduledEvents(Connection connection, Dialect dialect) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS scheduled_events (
+                    event_key VARCHAR(128) PRIMARY KEY,
+                    deadline BIGINT NOT NULL
+                )
+            """);
+        }
+    }
+
+    /**
+     * MySQL has no CREATE INDEX IF NOT EXISTS, so it checks the catalog first.
+     */
+    private static void createIndex(Connection connection, Dialect dialect, String name, String table, String columns) throws SQLException {
+        if (dialect == Dialect.MYSQL) {
+            try (PreparedStatement stmt = connection.prepareStatement(
+                    "SELECT 1 FROM information_schema.statistics WHERE table_schema = DATABASE() AND table_name = ? AND index_name = ?")) {
+                stmt.setString(1, table);
+                stmt.setString(2, name);
+                if (stmt.executeQuery().next()) {
+                    return;
+                }
+            }
+            try (Statement stmt = connection.createStatement()) {
+                stmt.execute("CREATE INDEX " + name + " ON " + table + " (" + columns + ")");
+            }
+        } else {
+            try (Statement stmt = connection.createStatement()) {
+                stmt.execute("CREATE INDEX IF NOT EXISTS " + name + " ON " + table + " (" + columns + ")");
+            }
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.lifesteal.storage;
+
+import java.sql.SQLException;
+import java.util.logging.Logger;
+
+/**
+ * MySQL backend. Every operation borrows a connection from the pool.
+ */
+public class MySqlPlayerStore extends JdbcPlayerStore {
+    private final String url;
+    private final String username;
+    private final String password;
+    private final int poolSize;
+
+    public MySqlPlayerStore(Logger logger, String host, int port, String database, String username, String password,
+                            int poolSize, long connectionTimeout, boolean compactKeys) {
+        super(logger, Dialect.MYSQL, connectionTimeout, compactKeys);
+        // Statements are cached per connection, so preparing them on the server pays off
+        this.url = "jdbc:mysql://" + host + ":" + port + "/" + database + "?useServerPrepStmts=true";
+        this.username = username;
+        this.password = password;
+        this.poolSize = poolSize;
+    }
+
+    @Override
+    public String getName() {
+        return "mysql";
+    }
+
+    @Override
+    protected void connect() throws SQLException {
+        try {
+            Class.forName("com.mysql.cj.jdbc.Driver");
+        } catch (ClassNotFoundException e) {
+            throw new SQLException("MySQL driver not found", e);
+        }
+        pool = new ConnectionPool(logger, url, username, password, poolSize, connectionTimeout);
+        pool.warmUp();
+        logger.info("Successfully connected to MySQL database! (pool size: " + pool.getMaxSize() + ")");
+    }
+}
@@ -0,0 +1,114 @@
+package com.lifesteal.storage;
+
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Backend that persists everything the plugin stores: hearts, allies, player
+ * names, the world border and the PvP cycle.
+ * Implementations are called from the database thread and, for a few lookups,
+ * from the server thread, so they must be thread safe. Writes may be applied
+ * asynchronously, but a read must always see writes issued before it.
+ */
+public interface PlayerStore extends AutoCloseable {
+
+    /**
+     * Connects and prepares the schema. Called once before any other method.
+     */
+    void open() throws SQLException;
+
+    /**
+     * Name shown in logs and admin commands.
+     */
+    String getName();
+
+    // Hearts
+
+    int getHearts(UUID uuid, int defaultHearts) throws SQLException;
+
+    void setHearts(UUID uuid, int hearts) throws SQLException;
+
+    /**
+     * Writes all values atomically.
+     */
+    void setHearts(Map<UUID, Integer> hearts) throws SQLException;
+
+    /**
+     * Moves hearts from the victim to the killer atomically, clamping both sides.
+     */
+    HeartTransfer transferHearts(UUID victim, UUID killer, int amount,
+                                 int defaultHearts, int minHearts, int maxHearts) throws SQLException;
+
+    // Allies, stored in both directions
+
+    void addAlly(UUID player, UUID ally) throws SQLException;
+
+    void removeAlly(UUID player, UUID ally) throws SQLException;
+
+    List<UUID> getAllies(UUID player) throws SQLException;
+
+    /**
+     * Which of the candidates are allies of the player, in as few queries as possible.
+     */
+    Set<UUID> getAlliesAmong(UUID player, Collection<UUID> candidates) throws SQLException;
+
+    /**
+     * Every ally relationship, by player. Each pair appears under both players.
+     */
+    Map<UUID, List<UUID>> getAllAllies() throws SQLException;
+
+    // Player names, recorded on join
+
+    void savePlayerName(UUID uuid, String name, long lastSeen) throws SQLException;
+
+    /**
+     * Last known name of the player, or null if they never joined.
+     */
+    String getPlayerName(UUID uuid) throws SQLException;
+
+    /**
+     * The player that most recently joined with this name, ignoring case, or null.
+     */
+    UUID getPlayerIdByName(String name) throws SQLException;
+
+    // World border and PvP cycle
+
+    /**
+     * Writes the borders of all given worlds and deletes those of the removed worlds in one batch.
+     */
+    void saveWorldBorders(Collection<WorldBorderState> borders, Collection<String> removedWorlds) throws SQLException;
+
+    /**
+     * Every saved border by world name, possibly including {@link WorldBorderState#LEGACY_WORLD}.
+     */
+    Map<String, WorldBorderState> loadWorldBorders() throws SQLException;
+
+    void saveCycleTimer(String mode, long nextSwitch) throws SQLException;
+
+    /**
+     * Returns current_mode and next_switch, or an empty map if nothing was saved.
+     */
+    Map<String, Object> loadCycleTimer() throws SQLException;
+
+    // Scheduled events
+
+    /**
+     * Writes the given deadlines and deletes the removed events in one batch.
+     */
+    void saveScheduledEvents(Map<String, Long> deadlines, Collection<String> removed) throws SQLException;
+
+    /**
+     * Deadline of every saved event, in epoch millis, by event key.
+     */
+    Map<String, Long> loadScheduledEvents() throws SQLException;
+
+    /**
+     * Flushes pending writes and releases every resource.
+     */
+    @Override
+    void close();
+}
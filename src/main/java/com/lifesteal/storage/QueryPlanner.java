@@ -0,0 +1,75 @@
+package com.lifesteal.storage;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Asks the database how it would run a catalog statement, without running it.
+ * Parameters are bound to sample values of the right type, since MySQL treats
+ * comparisons against NULL as an impossible WHERE and would hide the real plan.
+ */
+public class QueryPlanner {
+    private final Dialect dialect;
+    private final KeyFormat keys;
+
+    public QueryPlanner(Dialect dialect, KeyFormat keys) {
+        this.dialect = dialect;
+        this.keys = keys;
+    }
+
+    /**
+     * Returns one line per plan step.
+     */
+    public List<String> explain(Connection connection, SqlCatalog.Query query) throws SQLException {
+        String prefix = dialect == Dialect.MYSQL ? "EXPLAIN " : "EXPLAIN QUERY PLAN ";
+        List<String> plan = new ArrayList<>();
+        try (PreparedStatement stmt = connection.prepareStatement(prefix + query.sql)) {
+            UUID sample = new UUID(0L, 0L);
+            for (int i = 0; i < query.params.size(); i++) {
+                switch (query.params.get(i)) {
+                    case KEY:
+                        keys.set(stmt, i + 1, sample);
+                        break;
+                    case INT:
+                        stmt.setInt(i + 1, 0);
+                        break;
+                    case LONG:
+                        stmt.setLong(i + 1, 0L);
+                        break;
+                    case DOUBLE:
+                        stmt.setDouble(i + 1, 0.0);
+                        break;
+                    default:
+                        stmt.setString(i + 1, "");
+                        break;
+                }
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    plan.add(dialect == Dialect.MYSQL ? describeMySqlRow(rs) : rs.getString("detail"));
+                }
+            }
+        }
+        return plan;
+    }
+
+    private String describeMySqlRow(ResultSet rs) throws SQLException {
+        String table = rs.getString("table");
+        String type = rs.getString("type");
+        String key = rs.getString("key");
+        String extra = rs.getString("Extra");
+        StringBuilder line = new StringBuilder(table == null ? "-" : table)
+                .append(": ").append(type == null ? "-" : type)
+                .append(", key ").append(key == null ? "none" : key)
+                .append(", rows ").append(rs.getLong("rows"));
+        if (extra != null && !extra.isEmpty()) {
+            line.append(" (").append(extra).append(')');
+        }
+        return line.toString();
+    }
+}
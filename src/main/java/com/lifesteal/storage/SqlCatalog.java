@@ -0,0 +1,164 @@
+package com.lifesteal.storage;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Every statement the storage layer issues, in the flavour of one dialect.
+ * Keeping them in one place lets {@code /lifesteal database explain} show the
+ * query plan of each of them, so a missing index shows up before it hurts.
+ */
+public final class SqlCatalog {
+    /**
+     * Kind of value bound to a parameter, used to bind sample values when explaining.
+     */
+    public enum Param {
+        KEY, INT, LONG, DOUBLE, TEXT
+    }
+
+    public static final class Query {
+        public final String name;
+        public final String sql;
+        public final List<Param> params;
+
+        private Query(String name, String sql, Param... params) {
+            this.name = name;
+            this.sql = sql;
+            this.params = List.of(params);
+        }
+
+        public PreparedStatement prepare(Connection connection) throws SQLException {
+            return connection.prepareStatement(sql);
+        }
+    }
+
+    /**
+     * Number of candidates bound to each {@link #selectAlliesAmong} call. The list is
+     * fixed so the statement text never changes and stays in the statement cache;
+     * unused slots repeat a candidate.
+     */
+    public static final int ALLY_BATCH_SIZE = 32;
+
+    private final List<Query> queries = new ArrayList<>();
+
+    // Players
+    public final Query upsertHearts;
+    public final Query selectHearts;
+    public final Query selectHeartsForTransfer;
+
+    // Allies
+    public final Query insertAlly;
+    public final Query deleteAlly;
+    public final Query selectAllies;
+    public final Query selectAllAllies;
+    public final Query selectAlliesAmong;
+
+    // Player names
+    public final Query upsertPlayerName;
+    public final Query selectPlayerName;
+    public final Query selectPlayerIdByName;
+
+    // World border and PvP cycle
+    public final Query upsertWorldBorder;
+    public final Query deleteWorldBorder;
+    public final Query selectWorldBorders;
+    public final Query upsertCycleTimer;
+    public final Query selectCycleTimer;
+
+    // Scheduled events
+    public final Query upsertScheduledEvent;
+    public final Query deleteScheduledEvent;
+    public final Query selectScheduledEvents;
+
+    public SqlCatalog(Dialect dialect) {
+        boolean mysql = dialect == Dialect.MYSQL;
+
+        upsertHearts = add("upsert-hearts", mysql
+                ? "INSERT INTO players (uuid, hearts) VALUES (?, ?) ON DUPLICATE KEY UPDATE hearts = VALUES(hearts)"
+                : "INSERT OR REPLACE INTO players (uuid, hearts) VALUES (?, ?)",
+                Param.KEY, Param.INT);
+        selectHearts = add("select-hearts",
+                "SELECT hearts FROM players WHERE uuid = ?",
+                Param.KEY);
+        selectHeartsForTransfer = add("select-hearts-for-transfer",
+                "SELECT uuid, hearts FROM players WHERE uuid IN (?, ?)" + (mysql ? " FOR UPDATE" : ""),
+                Param.KEY, Param.KEY);
+
+        insertAlly = add("insert-ally",
+                "INSERT INTO allies (player_uuid, ally_uuid) VALUES (?, ?)",
+                Param.KEY, Param.KEY);
+        // Run once per direction so each delete is a primary key lookup
+        deleteAlly = add("delete-ally",
+                "DELETE FROM allies WHERE player_uuid = ? AND ally_uuid = ?",
+                Param.KEY, Param.KEY);
+        selectAllies = add("select-allies",
+                "SELECT ally_uuid FROM allies WHERE player_uuid = ?",
+                Param.KEY);
+        selectAllAllies = add("select-all-allies",
+                "SELECT player_uuid, ally_uuid FROM allies");
+        Param[] amongParams = new Param[ALLY_BATCH_SIZE + 1];
+        Arrays.fill(amongParams, Param.KEY);
+        selectAlliesAmong = add("select-allies-among",
+                "SELECT ally_uuid FROM allies WHERE player_uuid = ? AND ally_uuid IN ("
+                        + String.join(", ", Collections.nCopies(ALLY_BATCH_SIZE, "?")) + ")",
+                amongParams);
+
+        upsertPlayerName = add("upsert-player-name", mysql
+                ? "INSERT INTO player_names (uuid, name, name_lower, last_seen) VALUES (?, ?, ?, ?) " +
+                  "ON DUPLICATE KEY UPDATE name = VALUES(name), name_lower = VALUES(name_lower), last_seen = VALUES(last_seen)"
+                : "INSERT OR REPLACE INTO player_names (uuid, name, name_lower, last_seen) VALUES (?, ?, ?, ?)",
+                Param.KEY, Param.TEXT, Param.TEXT, Param.LONG);
+        selectPlayerName = add("select-player-name",
+                "SELECT name FROM player_names WHERE uuid = ?",
+                Param.KEY);
+        // Old rows keep a name after it moved to another account; the latest owner wins
+        selectPlayerIdByName = add("select-player-id-by-name",
+                "SELECT uuid FROM player_names WHERE name_lower = ? ORDER BY last_seen DESC LIMIT 1",
+                Param.TEXT);
+
+        upsertWorldBorder = add("upsert-world-border", mysql
+                ? "INSERT INTO world_borders (world, current_size, initial_size, last_shrink_time, next_shrink_time) VALUES (?, ?, ?, ?, ?) " +
+                  "ON DUPLICATE KEY UPDATE current_size = VALUES(current_size), initial_size = VALUES(initial_size), " +
+                  "last_shrink_time = VALUES(last_shrink_time), next_shrink_time = VALUES(next_shrink_time)"
+                : "INSERT OR REPLACE INTO world_borders (world, current_size, initial_size, last_shrink_time, next_shrink_time) VALUES (?, ?, ?, ?, ?)",
+                Param.TEXT, Param.DOUBLE, Param.DOUBLE, Param.LONG, Param.LONG);
+        deleteWorldBorder = add("delete-world-border",
+                "DELETE FROM world_borders WHERE world = ?",
+                Param.TEXT);
+        selectWorldBorders = add("select-world-borders",
+                "SELECT world, current_size, initial_size, last_shrink_time, next_shrink_time FROM world_borders");
+        upsertCycleTimer = add("upsert-cycle-timer", mysql
+                ? "INSERT INTO cycle_timer (id, current_mode, next_switch) VALUES (1, ?, ?) " +
+                  "ON DUPLICATE KEY UPDATE current_mode = VALUES(current_mode), next_switch = VALUES(next_switch)"
+                : "INSERT OR REPLACE INTO cycle_timer (id, current_mode, next_switch) VALUES (1, ?, ?)",
+                Param.TEXT, Param.LONG);
+        selectCycleTimer = add("select-cycle-timer",
+                "SELECT current_mode, next_switch FROM cycle_timer WHERE id = 1");
+
+        upsertScheduledEvent = add("upsert-scheduled-event", mysql
+                ? "INSERT INTO scheduled_events (event_key, deadline) VALUES (?, ?) " +
+                  "ON DUPLICATE KEY UPDATE deadline = VALUES(deadline)"
+                : "INSERT OR REPLACE INTO scheduled_events (event_key, deadline) VALUES (?, ?)",
+                Param.TEXT, Param.LONG);
+        deleteScheduledEvent = add("delete-scheduled-event",
+                "DELETE FROM scheduled_events WHERE event_key = ?",
+                Param.TEXT);
+        selectScheduledEvents = add("select-scheduled-events",
+                "SELECT event_key, deadline FROM scheduled_events");
+    }
+
+    private Query add(String name, String sql, Param... params) {
+        Query query = new Query(name, sql, params);
+        queries.add(query);
+        return query;
+    }
+
+    public List<Query> all() {
+        return Collections.unmodifiableList(queries);
+    }
+}
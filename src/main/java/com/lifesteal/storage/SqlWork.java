@@ -0,0 +1,12 @@
+package com.lifesteal.storage;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * A unit of database work run against a connection it does not own.
+ */
+@FunctionalInterface
+public interface SqlWork<T> {
+    T apply(Connection connection) throws SQLException;
+}
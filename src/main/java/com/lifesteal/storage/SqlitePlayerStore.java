@@ -0,0 +1,75 @@
+package com.lifesteal.storage;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.logging.Logger;
+
+/**
+ * SQLite backend. In tuned mode the database runs in WAL mode and every mutation
+ * goes through a {@link SqliteWriter} on its own connection, while the pool's single
+ * connection serves lookups concurrently.
+ */
+public class SqlitePlayerStore extends JdbcPlayerStore {
+    private final String file;
+    private final boolean tuned;
+    private final String synchronous;
+    private final int cacheSize;
+
+    public SqlitePlayerStore(Logger logger, String file, boolean tuned, String synchronous, int cacheSize,
+                             long connectionTimeout, boolean compactKeys) {
+        super(logger, Dialect.SQLITE, connectionTimeout, compactKeys);
+        this.file = file;
+        this.tuned = tuned;
+        this.synchronous = synchronous.toUpperCase();
+        this.cacheSize = cacheSize;
+    }
+
+    @Override
+    public String getName() {
+        return "sqlite";
+    }
+
+    @Override
+    protected void connect() throws SQLException {
+        try {
+            Class.forName("org.sqlite.JDBC");
+        } catch (ClassNotFoundException e) {
+            throw new SQLException("SQLite driver not found", e);
+        }
+        File dataFolder = new File(file).getParentFile();
+        if (dataFolder != null && !dataFolder.exists()) {
+            dataFolder.mkdirs();
+        }
+        String url = "jdbc:sqlite:" + file;
+        // SQLite only allows one writer at a time, so the pool holds a single connection
+        pool = new ConnectionPool(logger, url, null, null, 1, connectionTimeout);
+        if (tuned) {
+            pool.setInitializer(this::applyPragmas);
+            Connection writeConnection = DriverManager.getConnection(url);
+            try (Statement stmt = writeConnection.createStatement()) {
+                stmt.execute("PRAGMA journal_mode=WAL");
+            }
+            applyPragmas(writeConnection);
+            // The writer reuses a handful of statements for its whole lifetime, cache them as well
+            writer = new SqliteWriter(logger, StatementCache.wrap(writeConnection,
+                    ConnectionPool.STATEMENT_CACHE_SIZE, pool.getStatementStats()));
+            writer.start();
+        }
+        pool.warmUp();
+        logger.info("Successfully connected to SQLite database!" + (tuned ? " (WAL, batched writes)" : ""));
+    }
+
+    private Void applyPragmas(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("PRAGMA synchronous=" + synchronous);
+            // Negative values are KiB rather than pages
+            stmt.execute("PRAGMA cache_size=-" + cacheSize);
+            stmt.execute("PRAGMA busy_timeout=" + connectionTimeout);
+            stmt.execute("PRAGMA temp_store=MEMORY");
+        }
+        return null;
+    }
+}
@@ -0,0 +1,205 @@
+package com.lifesteal.storage;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Single writer for SQLite in WAL mode.
+ * Mutations are queued from any thread and applied by one dedicated thread on its
+ * own connection. Everything that is queued while a commit is in progress goes
+ * into the next transaction, so a burst of writes costs one fsync instead of one
+ * per statement. Each mutation runs inside a savepoint, so a failing one is rolled
+ * back on its own without taking the rest of the batch with it.
+ */
+public class SqliteWriter implements AutoCloseable {
+    private static final int MAX_BATCH_SIZE = 256;
+
+    private final Logger logger;
+    private final Connection connection;
+    private final BlockingQueue<PendingWrite<?>> queue = new LinkedBlockingQueue<>();
+    private final Thread thread;
+    private volatile boolean running = true;
+    private volatile CompletableFuture<?> lastSubmitted = CompletableFuture.completedFuture(null);
+
+    // Metrics
+    private final AtomicLong writeCount = new AtomicLong();
+    private final AtomicLong commitCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+
+    public SqliteWriter(Logger logger, Connection connection) {
+        this.logger = logger;
+        this.connection = connection;
+        this.thread = new Thread(this::run, "LifeSteal-SQLite-Writer");
+        this.thread.setDaemon(true);
+    }
+
+    public void start() {
+        thread.start();
+    }
+
+    /**
+     * Queues a mutation. The future completes once the transaction containing it has committed.
+     */
+    public <T> CompletableFuture<T> submit(SqlWork<T> work) {
+        PendingWrite<T> write = new PendingWrite<>(work);
+        synchronized (this) {
+            if (!running) {
+                write.future.completeExceptionally(new SQLException("SQLite writer has been closed"));
+                return write.future;
+            }
+            queue.add(write);
+            lastSubmitted = write.future;
+        }
+        return write.future;
+    }
+
+    /**
+     * Blocks until everything queued so far has been committed, so a read that
+     * follows a write on the separate read connection always sees it.
+     */
+    public void awaitPending() {
+        if (Thread.currentThread() == thread) {
+            return;
+        }
+        lastSubmitted.handle((result, error) -> null).join();
+    }
+
+    private void run() {
+        List<PendingWrite<?>> batch = new ArrayList<>();
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingWrite<?> first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, MAX_BATCH_SIZE - 1);
+                commit(batch);
+            } catch (InterruptedException e) {
+                // close() interrupts only after it stopped accepting writes, keep draining
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void commit(List<PendingWrite<?>> batch) {
+        try {
+            connection.setAutoCommit(false);
+            for (PendingWrite<?> write : batch) {
+                Savepoint savepoint = connection.setSavepoint();
+                try {
+                    write.apply(connection);
+                    connection.releaseSavepoint(savepoint);
+                } catch (SQLException | RuntimeException e) {
+                    connection.rollback(savepoint);
+                    write.error = e;
+                }
+            }
+            connection.commit();
+            commitCount.incrementAndGet();
+            for (PendingWrite<?> write : batch) {
+                if (write.error != null) {
+                    failedCount.incrementAndGet();
+                }
+                writeCount.incrementAndGet();
+                write.complete();
+            }
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Failed to commit a batch of " + batch.size() + " database write(s)", e);
+            try {
+                connection.rollback();
+            } catch (SQLException ignored) {
+                // The connection is already unusable
+            }
+            for (PendingWrite<?> write : batch) {
+                failedCount.incrementAndGet();
+                write.future.completeExceptionally(e);
+            }
+        } finally {
+            try {
+                connection.setAutoCommit(true);
+            } catch (SQLException ignored) {
+                // Reported by the next commit
+            }
+        }
+    }
+
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    public long getWriteCount() {
+        return writeCount.get();
+    }
+
+    public long getCommitCount() {
+        return commitCount.get();
+    }
+
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+
+    public double getAverageBatchSize() {
+        long commits = commitCount.get();
+        return commits == 0 ? 0 : (double) writeCount.get() / commits;
+    }
+
+    /**
+     * Stops accepting writes, commits whatever is still queued and closes the connection.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            running = false;
+        }
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (thread.isAlive()) {
+            logger.severe("Timed out waiting for " + queue.size() + " queued SQLite write(s) to commit!");
+            thread.interrupt();
+        }
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            logger.log(Level.WARNING, "Failed to close SQLite writer connection", e);
+        }
+    }
+
+    private static final class PendingWrite<T> {
+        private final SqlWork<T> work;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+        private T result;
+        private Exception error;
+
+        private PendingWrite(SqlWork<T> work) {
+            this.work = work;
+        }
+
+        private void apply(Connection connection) throws SQLException {
+            result = work.apply(connection);
+        }
+
+        private void complete() {
+            if (error != null) {
+                future.completeExceptionally(error);
+            } else {
+                future.complete(result);
+            }
+        }
+    }
+}
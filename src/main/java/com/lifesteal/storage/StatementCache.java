@@ -0,0 +1,199 @@
+package com.lifesteal.storage;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Prepared statements of one physical connection, kept open and reused by SQL text.
+ * Statements handed out are wrappers whose close() only resets them (closing the
+ * open result set and clearing parameters), so callers keep using try-with-resources.
+ * The least recently used statement is closed for real once the cache is full.
+ * Not thread safe; a connection is only used by one borrower at a time.
+ */
+public class StatementCache {
+    private final Connection connection;
+    private final int maxSize;
+    private final Stats stats;
+    private final LinkedHashMap<String, CachedStatement> statements;
+
+    public StatementCache(Connection connection, int maxSize, Stats stats) {
+        this.connection = connection;
+        this.maxSize = maxSize;
+        this.stats = stats;
+        this.statements = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedStatement> eldest) {
+                if (size() > StatementCache.this.maxSize && !eldest.getValue().inUse) {
+                    closeQuietly(eldest.getValue().statement);
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public PreparedStatement prepare(String sql) throws SQLException {
+        CachedStatement cached = statements.get(sql);
+        if (cached != null && !cached.inUse && !cached.statement.isClosed()) {
+            stats.hits.incrementAndGet();
+        } else if (cached != null && cached.inUse) {
+            // Same SQL prepared again while the first one is still open, do not share it
+            stats.misses.incrementAndGet();
+            return connection.prepareStatement(sql);
+        } else {
+            stats.misses.incrementAndGet();
+            cached = new CachedStatement(connection.prepareStatement(sql));
+            statements.put(sql, cached);
+        }
+        cached.inUse = true;
+        return (PreparedStatement) Proxy.newProxyInstance(
+                StatementCache.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class},
+                new Lease(cached));
+    }
+
+    public int size() {
+        return statements.size();
+    }
+
+    public void close() {
+        for (CachedStatement cached : statements.values()) {
+            closeQuietly(cached.statement);
+        }
+        statements.clear();
+    }
+
+    /**
+     * Wraps a connection that is not pooled so its prepareStatement(String) calls
+     * go through a cache. Closing the wrapper closes the statements and the connection.
+     */
+    public static Connection wrap(Connection connection, int maxSize, Stats stats) {
+        StatementCache cache = new StatementCache(connection, maxSize, stats);
+        return (Connection) Proxy.newProxyInstance(
+                StatementCache.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if (isPrepareBySql(method, args)) {
+                        return cache.prepare((String) args[0]);
+                    }
+                    if (method.getName().equals("close")) {
+                        cache.close();
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+
+    static boolean isPrepareBySql(Method method, Object[] args) {
+        return method.getName().equals("prepareStatement") && args != null && args.length == 1 && args[0] instanceof String;
+    }
+
+    private static void closeQuietly(PreparedStatement statement) {
+        try {
+            statement.close();
+        } catch (SQLException ignored) {
+            // Connection is going away anyway
+        }
+    }
+
+    /**
+     * Hit and miss counters, shared by every cache of a pool.
+     */
+    public static final class Stats {
+        private final AtomicLong hits = new AtomicLong();
+        private final AtomicLong misses = new AtomicLong();
+
+        public long getHits() {
+            return hits.get();
+        }
+
+        public long getMisses() {
+            return misses.get();
+        }
+
+        public double getHitRate() {
+            long total = hits.get() + misses.get();
+            return total == 0 ? 0 : (double) hits.get() / total;
+        }
+    }
+
+    private static final class CachedStatement {
+        private final PreparedStatement statement;
+        private boolean inUse;
+
+        private CachedStatement(PreparedStatement statement) {
+            this.statement = statement;
+        }
+    }
+
+    /**
+     * One use of a cached statement, ended by close().
+     */
+    private static final class Lease implements InvocationHandler {
+        private final CachedStatement cached;
+        private ResultSet openResultSet;
+        private boolean returned = false;
+
+        private Lease(CachedStatement cached) {
+            this.cached = cached;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!returned) {
+                        returned = true;
+                        reset();
+                    }
+                    return null;
+                case "isClosed":
+                    return returned || cached.statement.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    break;
+            }
+            if (returned) {
+                throw new SQLException("Statement has already been closed");
+            }
+            try {
+                Object result = method.invoke(cached.statement, args);
+                if (result instanceof ResultSet) {
+                    openResultSet = (ResultSet) result;
+                }
+                return result;
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        private void reset() throws SQLException {
+            try {
+                // An open result set keeps a read transaction alive on SQLite
+                if (openResultSet != null) {
+                    openResultSet.close();
+                }
+                cached.statement.clearBatch();
+                cached.statement.clearParameters();
+            } finally {
+                openResultSet = null;
+                cached.inUse = false;
+            }
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.lifesteal.storage;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Key/value settings describing the stored data itself, kept in the storage_meta table.
+ */
+public final class StorageMeta {
+    public static final String KEY_FORMAT = "key_format";
+
+    private StorageMeta() {
+    }
+
+    public static String get(Connection connection, String key) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "SELECT meta_value FROM storage_meta WHERE meta_key = ?")) {
+            stmt.setString(1, key);
+            ResultSet rs = stmt.executeQuery();
+            return rs.next() ? rs.getString("meta_value") : null;
+        }
+    }
+
+    public static void set(Connection connection, Dialect dialect, String key, String value) throws SQLException {
+        String sql = dialect == Dialect.MYSQL
+                ? "INSERT INTO storage_meta (meta_key, meta_value) VALUES (?, ?) ON DUPLICATE KEY UPDATE meta_value = VALUES(meta_value)"
+                : "INSERT OR REPLACE INTO storage_meta (meta_key, meta_value) VALUES (?, ?)";
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setString(1, key);
+            stmt.setString(2, value);
+            stmt.executeUpdate();
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.lifesteal.storage;
+
+/**
+ * Saved border of one world. Sizes are diameters in blocks, times are epoch millis;
+ * a next shrink time of 0 means no shrink is scheduled.
+ */
+public class WorldBorderState {
+    /**
+     * Row holding the single border saved before borders were kept per world.
+     * The worlds configured at the next start take it over, then it is deleted.
+     */
+    public static final String LEGACY_WORLD = "*";
+
+    public final String world;
+    public final double currentSize;
+    public final double initialSize;
+    public final long lastShrinkTime;
+    public final long nextShrinkTime;
+
+    public WorldBorderState(String world, double currentSize, double initialSize, long lastShrinkTime, long nextShrinkTime) {
+        this.world = world;
+        this.currentSize = currentSize;
+        this.initialSize = initialSize;
+        this.lastShrinkTime = lastShrinkTime;
+        this.nextShrinkTime = nextShrinkTime;
+    }
+}
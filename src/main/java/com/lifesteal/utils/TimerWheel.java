@@ -0,0 +1,107 @@
+package com.lifesteal.utils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Hashed timer wheel. Keys are spread over a fixed number of buckets by their
+ * deadline, so scheduling and cancelling are O(1) and each {@link #advance()}
+ * only looks at one bucket instead of every pending key.
+ * Not thread safe; drive it from a single thread.
+ */
+public class TimerWheel<K> {
+    private final List<Map<K, Timeout>> buckets;
+    private final Map<K, Timeout> timeouts = new HashMap<>();
+    private final Consumer<K> onExpire;
+    private int cursor;
+
+    private static final class Timeout {
+        private final int bucket;
+        // Full turns of the wheel left before the deadline is reached
+        private int rounds;
+
+        private Timeout(int bucket, int rounds) {
+            this.bucket = bucket;
+            this.rounds = rounds;
+        }
+    }
+
+    public TimerWheel(int size, Consumer<K> onExpire) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Wheel size must be positive: " + size);
+        }
+        this.buckets = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            buckets.add(new HashMap<>());
+        }
+        this.onExpire = onExpire;
+    }
+
+    /**
+     * Expires the key after the given number of ticks, replacing any earlier deadline.
+     */
+    public void schedule(K key, long ticks) {
+        cancel(key);
+        long delay = Math.max(1, ticks);
+        int size = buckets.size();
+        int bucket = (int) ((cursor + delay) % size);
+        Timeout timeout = new Timeout(bucket, (int) ((delay - 1) / size));
+        buckets.get(bucket).put(key, timeout);
+        timeouts.put(key, timeout);
+    }
+
+    public boolean cancel(K key) {
+        Timeout timeout = timeouts.remove(key);
+        if (timeout == null) {
+            return false;
+        }
+        buckets.get(timeout.bucket).remove(key);
+        return true;
+    }
+
+    public boolean contains(K key) {
+        return timeouts.containsKey(key);
+    }
+
+    /**
+     * Moves the wheel forward by one tick and expires every key that is due.
+     * Callbacks run after the wheel has been updated, so they may schedule again.
+     */
+    public void advance() {
+        cursor = (cursor + 1) % buckets.size();
+        Map<K, Timeout> bucket = buckets.get(cursor);
+        if (bucket.isEmpty()) {
+            return;
+        }
+        List<K> expired = new ArrayList<>();
+        Iterator<Map.Entry<K, Timeout>> it = bucket.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<K, Timeout> entry = it.next();
+            if (entry.getValue().rounds > 0) {
+                entry.getValue().rounds--;
+            } else {
+                it.remove();
+                timeouts.remove(entry.getKey());
+                expired.add(entry.getKey());
+            }
+        }
+        for (K key : expired) {
+            onExpire.accept(key);
+        }
+    }
+
+    public int size() {
+        return timeouts.size();
+    }
+
+    public void clear() {
+        for (Map<K, Timeout> bucket : buckets) {
+            bucket.clear();
+        }
+        timeouts.clear();
+    }
+}